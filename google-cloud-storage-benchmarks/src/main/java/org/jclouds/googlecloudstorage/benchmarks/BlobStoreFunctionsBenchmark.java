@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.benchmarks;
+
+import static org.jclouds.http.HttpUtils.releasePayload;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.googlecloudstorage.blobstore.functions.BlobMetadataToObjectTemplate;
+import org.jclouds.googlecloudstorage.blobstore.functions.ObjectListToStorageMetadata;
+import org.jclouds.googlecloudstorage.blobstore.functions.ObjectToBlobMetadata;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.googlecloudstorage.parser.ParseObjectListPage;
+import org.jclouds.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+
+/**
+ * Maps already parsed objects to blobstore metadata and back, as every blobstore get, list and put does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlobStoreFunctionsBenchmark {
+
+   private static final int OBJECTS = 1000;
+
+   private ListPageWithPrefixes<GoogleCloudStorageObject> page;
+   private List<BlobMetadata> blobMetadata;
+   private ObjectToBlobMetadata objectToBlobMetadata;
+   private ObjectListToStorageMetadata objectListToStorageMetadata;
+   private BlobMetadataToObjectTemplate blobMetadataToObjectTemplate;
+
+   @Setup
+   public void setup() {
+      Injector injector = Fixtures.injector();
+      objectToBlobMetadata = injector.getInstance(ObjectToBlobMetadata.class);
+      objectListToStorageMetadata = injector.getInstance(ObjectListToStorageMetadata.class);
+      blobMetadataToObjectTemplate = injector.getInstance(BlobMetadataToObjectTemplate.class);
+      HttpResponse response = HttpResponse.builder().statusCode(200).payload(Fixtures.objectList(OBJECTS)).build();
+      try {
+         page = injector.getInstance(ParseObjectListPage.class).apply(response);
+      } finally {
+         releasePayload(response);
+      }
+      ImmutableList.Builder<BlobMetadata> blobs = ImmutableList.builder();
+      for (GoogleCloudStorageObject object : page) {
+         blobs.add(objectToBlobMetadata.apply(object));
+      }
+      blobMetadata = blobs.build();
+   }
+
+   /** Converts one page of objects, one at a time. */
+   @Benchmark
+   @OperationsPerInvocation(OBJECTS)
+   public void objectToBlobMetadata(Blackhole blackhole) {
+      for (GoogleCloudStorageObject object : page) {
+         blackhole.consume(objectToBlobMetadata.apply(object));
+      }
+   }
+
+   /** Converts one page of objects and sorts it into a page set. */
+   @Benchmark
+   public PageSet<? extends StorageMetadata> objectListToStorageMetadata() {
+      return objectListToStorageMetadata.apply(page);
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(OBJECTS)
+   public void blobMetadataToObjectTemplate(Blackhole blackhole) {
+      for (BlobMetadata metadata : blobMetadata) {
+         blackhole.consume(blobMetadataToObjectTemplate.apply(metadata));
+      }
+   }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.benchmarks;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.CREDENTIAL_TYPE;
+import static org.jclouds.googlecloud.config.GoogleCloudProperties.PROJECT_NAME;
+import static org.jclouds.oauth.v2.config.CredentialType.BEARER_TOKEN_CREDENTIALS;
+
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageProviderMetadata;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+/** Builds the injector and payloads the benchmarks share. Nothing here touches the network. */
+final class Fixtures {
+
+   private Fixtures() {
+   }
+
+   /** Returns the injector of a context with a fake bearer token, so that no credentials are needed. */
+   static Injector injector(Module... modules) {
+      Properties overrides = new Properties();
+      overrides.put(PROJECT_NAME, "benchmark");
+      overrides.put(CREDENTIAL_TYPE, BEARER_TOKEN_CREDENTIALS.toString());
+      return ContextBuilder.newBuilder(new GoogleCloudStorageProviderMetadata())
+            .credentials("benchmark@developer.gserviceaccount.com", "token")
+            .overrides(overrides)
+            .modules(ImmutableSet.copyOf(modules))
+            .buildInjector();
+   }
+
+   /** Returns an objects.list response of the given number of objects, shaped like the test's object_list.json. */
+   static byte[] objectList(int objects) {
+      StringBuilder json = new StringBuilder("{\"kind\":\"storage#objects\",\"nextPageToken\":\"token\",\"items\":[");
+      for (int i = 0; i < objects; i++) {
+         String name = String.format("dir/file_name_%06d", i);
+         String encoded = name.replace("/", "%2F");
+         long generation = 1000 + i;
+         json.append(i == 0 ? "" : ",").append('{')
+               .append("\"kind\":\"storage#object\",")
+               .append("\"id\":\"test/").append(name).append('/').append(generation).append("\",")
+               .append("\"selfLink\":\"https://www.googleapis.com/storage/v1/b/test/o/").append(encoded).append("\",")
+               .append("\"name\":\"").append(name).append("\",")
+               .append("\"bucket\":\"test\",")
+               .append("\"generation\":\"").append(generation).append("\",")
+               .append("\"metageneration\":\"1\",")
+               .append("\"contentType\":\"application/x-tar\",")
+               .append("\"updated\":\"2014-09-27T00:01:44.819Z\",")
+               .append("\"storageClass\":\"STANDARD\",")
+               .append("\"size\":\"").append(1000 + i).append("\",")
+               .append("\"md5Hash\":\"1B2M2Y8AsgTpgAmY7PhCfg==\",")
+               .append("\"mediaLink\":\"https://www.googleapis.com/download/storage/v1/b/test/o/").append(encoded)
+               .append("?generation=").append(generation).append("&alt=media\",")
+               .append("\"metadata\":{\"owner\":\"benchmark\",\"index\":\"").append(i).append("\"},")
+               .append("\"owner\":{\"entity\":\"entity\",\"entityId\":\"entityId\"},")
+               .append("\"crc32c\":\"AAAAAA==\",")
+               .append("\"etag\":\"CLiBxrO4p8ACEAE=\"")
+               .append('}');
+      }
+      json.append("],\"prefixes\":[\"dir/a/\",\"dir/b/\"]}");
+      return json.toString().getBytes(UTF_8);
+   }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line, which takes the usual JMH options, with the gc profiler always
+ * enabled so that the allocation rate is reported next to the throughput.
+ */
+public final class Main {
+
+   private Main() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions options = new CommandLineOptions(args);
+      if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+            || options.shouldListResultFormats()) {
+         org.openjdk.jmh.Main.main(args);
+         return;
+      }
+      new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+   }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.googlecloudstorage.blobstore.functions.ObjectListToStorageMetadata;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.googlecloudstorage.parser.ParseObjectListPage;
+import org.jclouds.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Injector;
+
+/**
+ * Parses objects.list responses of different sizes, both into a page of {@link GoogleCloudStorageObject}s with gson
+ * and on into blobstore metadata as the blobstore lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+   @Param({ "1", "100", "1000" })
+   private int objects;
+
+   private byte[] objectList;
+   private ParseObjectListPage parseObjectListPage;
+   private ObjectListToStorageMetadata objectListToStorageMetadata;
+
+   @Setup
+   public void setup() {
+      objectList = Fixtures.objectList(objects);
+      Injector injector = Fixtures.injector();
+      parseObjectListPage = injector.getInstance(ParseObjectListPage.class);
+      objectListToStorageMetadata = injector.getInstance(ObjectListToStorageMetadata.class);
+   }
+
+   @Benchmark
+   public ListPageWithPrefixes<GoogleCloudStorageObject> parseObjectListPage() {
+      return parseObjectListPage.apply(response());
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> parseToStorageMetadataPage() {
+      return objectListToStorageMetadata.apply(parseObjectListPage.apply(response()));
+   }
+
+   private HttpResponse response() {
+      return HttpResponse.builder().statusCode(200).message("OK").payload(objectList).build();
+   }
+}
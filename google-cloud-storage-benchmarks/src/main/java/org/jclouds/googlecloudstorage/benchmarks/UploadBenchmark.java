@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloudstorage.binders.MultipartUploadBinder;
+import org.jclouds.googlecloudstorage.domain.ResumableUpload;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+import org.jclouds.googlecloudstorage.parser.ParseToResumableUpload;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+/**
+ * Serializes multipart uploads of different sizes, binding the metadata and media parts and writing the request
+ * body, and parses the responses of resumable upload sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UploadBenchmark {
+
+   @Param({ "1024", "1048576" })
+   private int mediaSize;
+
+   private byte[] media;
+   private ObjectTemplate template;
+   private MultipartUploadBinder multipartUploadBinder;
+   private final ParseToResumableUpload parseToResumableUpload = new ParseToResumableUpload();
+   private final HttpResponse resumableUploadResponse = HttpResponse.builder()
+         .statusCode(308)
+         .message("Resume Incomplete")
+         .addHeader("Location",
+               "https://www.googleapis.com/upload/storage/v1/b/test/o?uploadType=resumable&upload_id=xa298sd_sdlkj2")
+         .addHeader("Range", "bytes=0-262143")
+         .addHeader("Content-Length", "0")
+         .build();
+
+   @Setup
+   public void setup() {
+      media = new byte[mediaSize];
+      template = new ObjectTemplate().name("dir/file_name").contentType("application/octet-stream")
+            .size((long) mediaSize).customMetadata(ImmutableMap.of("owner", "benchmark"));
+      multipartUploadBinder = Fixtures.injector().getInstance(MultipartUploadBinder.class);
+   }
+
+   /** Binds a multipart upload and writes its body, returning the number of bytes written. */
+   @Benchmark
+   public long multipartUploadBinder() throws IOException {
+      HttpRequest request = HttpRequest.builder().method("POST")
+            .endpoint("https://www.googleapis.com/upload/storage/v1/b/test/o?uploadType=multipart").build();
+      multipartUploadBinder.bindToRequest(request,
+            ImmutableMap.<String, Object> of("template", template, "payload", Payloads.newByteArrayPayload(media)));
+      InputStream body = request.getPayload().openStream();
+      try {
+         return ByteStreams.copy(body, ByteStreams.nullOutputStream());
+      } finally {
+         Closeables.closeQuietly(body);
+      }
+   }
+
+   @Benchmark
+   public ResumableUpload parseToResumableUpload() {
+      return parseToResumableUpload.apply(resumableUploadResponse);
+   }
+}
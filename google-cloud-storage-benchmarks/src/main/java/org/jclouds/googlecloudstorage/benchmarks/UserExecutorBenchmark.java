@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.config.VirtualThreadExecutorModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+/**
+ * Fans out blocking tasks on the user executor, as parallel downloads, uploads and listings do, comparing the default
+ * thread pool with {@link VirtualThreadExecutorModule}. Each task sleeps as a stand-in for a request waiting on the
+ * network. Without virtual threads, both executors are thread pools and should perform alike.
+ * <p>
+ * Alongside the throughput, the {@code peakThreads} counter reports the most platform threads alive during each
+ * iteration. Virtual threads are not counted, only the carrier threads they run on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserExecutorBenchmark {
+
+   private static final int TASKS = 1000;
+
+   @Param({ "default", "virtual" })
+   private String executor;
+
+   private Injector injector;
+   private ListeningExecutorService userExecutor;
+
+   @Setup
+   public void setup() {
+      injector = executor.equals("virtual") ? Fixtures.injector(new VirtualThreadExecutorModule())
+            : Fixtures.injector();
+      userExecutor = injector.getInstance(Key.get(ListeningExecutorService.class,
+            Names.named(Constants.PROPERTY_USER_THREADS)));
+   }
+
+   @TearDown
+   public void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   /** Reports the peak platform thread count of each iteration next to the throughput. */
+   @State(Scope.Thread)
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   public static class Threads {
+      public int peakThreads;
+
+      @Setup(Level.Iteration)
+      public void reset() {
+         ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+         peakThreads = 0;
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(TASKS)
+   public List<Long> fanOut(Threads threads) throws Exception {
+      List<ListenableFuture<Long>> futures = Lists.newArrayListWithCapacity(TASKS);
+      for (int i = 0; i < TASKS; i++) {
+         futures.add(userExecutor.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws InterruptedException {
+               long start = System.nanoTime();
+               Thread.sleep(1);
+               return System.nanoTime() - start;
+            }
+         }));
+      }
+      List<Long> slept = Futures.allAsList(futures).get();
+      threads.peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+      return slept;
+   }
+}
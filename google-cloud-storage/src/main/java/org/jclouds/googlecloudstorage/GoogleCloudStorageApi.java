@@ -20,6 +20,7 @@ import java.io.Closeable;
 
 import javax.ws.rs.Path;
 
+import org.jclouds.googlecloudstorage.features.BatchApi;
 import org.jclouds.googlecloudstorage.features.BucketAccessControlsApi;
 import org.jclouds.googlecloudstorage.features.BucketApi;
 import org.jclouds.googlecloudstorage.features.DefaultObjectAccessControlsApi;
@@ -60,7 +61,6 @@ public interface GoogleCloudStorageApi extends Closeable {
     * Provides access to Object Access Control features
     */
    @Delegate
-   @Path("/storage/v1")
    ObjectAccessControlsApi getObjectAccessControlsApi();
 
    /**
@@ -74,4 +74,10 @@ public interface GoogleCloudStorageApi extends Closeable {
     */
    @Delegate
    ResumableUploadApi getResumableUploadApi();
+
+   /**
+    * Provides access to Google Cloud Storage batch requests
+    */
+   @Delegate
+   BatchApi getBatchApi();
 }
@@ -17,8 +17,32 @@
 package org.jclouds.googlecloudstorage;
 
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.ADAPTIVE_CONCURRENCY_LIMIT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.COALESCE_BUFFER_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.COALESCE_READS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_DIRECTORY;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_DISK_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_MEMORY_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.DELETE_COMPONENTS_SYNCHRONOUSLY;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.HEDGE_READS_BUDGET;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.HEDGE_READS_PERCENTILE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.LIST_OBJECT_FIELDS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.LIST_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METADATA_CACHE_MAX_WEIGHT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METADATA_CACHE_TTL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METRICS_ENABLED;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_FILTER_EXPECTED_NAMES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_TTL;
 import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.OPERATION_COMPLETE_INTERVAL;
 import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.OPERATION_COMPLETE_TIMEOUT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.PARALLEL_DOWNLOAD_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.PARALLEL_DOWNLOAD_PART_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_INITIAL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_MAX;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_PER_OBJECT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_RAMP_PERIOD;
 import static org.jclouds.oauth.v2.config.OAuthProperties.AUDIENCE;
 import static org.jclouds.oauth.v2.config.OAuthProperties.JWS_ALG;
 import static org.jclouds.reflect.Reflection2.typeToken;
@@ -29,8 +53,10 @@ import java.util.Properties;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.googlecloud.config.CurrentProject;
 import org.jclouds.googlecloudstorage.blobstore.config.GoogleCloudStorageBlobStoreContextModule;
+import org.jclouds.googlecloudstorage.blobstore.functions.ObjectToBlobMetadata;
 import org.jclouds.googlecloudstorage.config.GoogleCloudStorageHttpApiModule;
 import org.jclouds.googlecloudstorage.config.GoogleCloudStorageParserModule;
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
 import org.jclouds.oauth.v2.config.OAuthModule;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 
@@ -60,6 +86,30 @@ public class GoogleCloudStorageApiMetadata extends BaseHttpApiMetadata<GoogleClo
       properties.put(PROPERTY_SESSION_INTERVAL, 3600);
       properties.put(OPERATION_COMPLETE_INTERVAL, 2000);
       properties.put(OPERATION_COMPLETE_TIMEOUT, 600000);
+      properties.put(PARALLEL_DOWNLOAD_PART_SIZE, 32L * 1024L * 1024L);
+      properties.put(PARALLEL_DOWNLOAD_PARALLELISM, 4);
+      properties.put(MULTIPART_UPLOAD_PARALLELISM, 4);
+      properties.put(DELETE_COMPONENTS_SYNCHRONOUSLY, false);
+      properties.put(LIST_PARALLELISM, 8);
+      properties.put(LIST_OBJECT_FIELDS, ObjectField.selector(ObjectToBlobMetadata.FIELDS));
+      properties.put(METADATA_CACHE_TTL, 0L);
+      properties.put(METADATA_CACHE_MAX_WEIGHT, 32L * 1024L * 1024L);
+      properties.put(NEGATIVE_CACHE_TTL, 0L);
+      properties.put(NEGATIVE_CACHE_SIZE, 100000L);
+      properties.put(NEGATIVE_CACHE_FILTER_EXPECTED_NAMES, 1000000);
+      properties.put(CONTENT_CACHE_MEMORY_SIZE, 0L);
+      properties.put(CONTENT_CACHE_DIRECTORY, "");
+      properties.put(CONTENT_CACHE_DISK_SIZE, 1024L * 1024 * 1024);
+      properties.put(COALESCE_READS, false);
+      properties.put(COALESCE_BUFFER_SIZE, 8L * 1024 * 1024);
+      properties.put(ADAPTIVE_CONCURRENCY_LIMIT, 0);
+      properties.put(WRITE_RATE_MAX, 0.0);
+      properties.put(WRITE_RATE_INITIAL, 1000.0);
+      properties.put(WRITE_RATE_RAMP_PERIOD, 20L * 60L * 1000L);
+      properties.put(WRITE_RATE_PER_OBJECT, 0.0);
+      properties.put(HEDGE_READS_PERCENTILE, 0.0);
+      properties.put(HEDGE_READS_BUDGET, 0.05);
+      properties.put(METRICS_ENABLED, false);
       return properties;
    }
 
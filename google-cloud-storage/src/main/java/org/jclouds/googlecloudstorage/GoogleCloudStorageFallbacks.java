@@ -18,8 +18,15 @@ package org.jclouds.googlecloudstorage;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.Fallbacks.valOnNotFoundOr404;
+
+import java.util.Iterator;
 
 import org.jclouds.Fallback;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.util.Throwables2;
+
+import com.google.common.collect.Iterators;
 
 public final class GoogleCloudStorageFallbacks {
 
@@ -31,4 +38,22 @@ public final class GoogleCloudStorageFallbacks {
          throw propagate(t);
       }
    }
+
+   public static final class EmptyIteratorOnNotFoundOr404 implements Fallback<Iterator<Object>> {
+      public Iterator<Object> createOrPropagate(Throwable t) throws Exception {
+         return valOnNotFoundOr404(Iterators.emptyIterator(), checkNotNull(t, "throwable"));
+      }
+   }
+
+   /** Answers a conditional read with null when the service reports 304 Not Modified. */
+   public static final class NullOnNotModified implements Fallback<Object> {
+      public Object createOrPropagate(Throwable t) throws Exception {
+         HttpResponseException e = Throwables2.getFirstThrowableOfType(checkNotNull(t, "throwable"),
+               HttpResponseException.class);
+         if (e != null && e.getResponse() != null && e.getResponse().getStatusCode() == 304) {
+            return null;
+         }
+         throw propagate(t);
+      }
+   }
 }
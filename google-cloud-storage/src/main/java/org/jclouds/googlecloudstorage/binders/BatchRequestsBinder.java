@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.binders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+import java.util.List;
+
+import org.jclouds.googlecloudstorage.domain.BatchRequest;
+import org.jclouds.googlecloudstorage.features.BatchApi;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.rest.Binder;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Writes a list of {@link BatchRequest}s as a {@code multipart/mixed} body with one {@code application/http} part per
+ * request. Each part carries a {@code Content-ID} of {@code <item+n>} so that responses can be matched back to their
+ * requests.
+ */
+public final class BatchRequestsBinder implements Binder {
+   static final String BOUNDARY = "jclouds_batch_boundary";
+   static final String CRLF = "\r\n";
+
+   @SuppressWarnings("unchecked")
+   @Override public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      List<BatchRequest> requests = (List<BatchRequest>) checkNotNull(input, "requests");
+      checkArgument(!requests.isEmpty(), "a batch must contain at least one request");
+      checkArgument(requests.size() <= BatchApi.MAX_BATCH_SIZE, "a batch may contain at most %s requests, was %s",
+            BatchApi.MAX_BATCH_SIZE, requests.size());
+
+      StringBuilder body = new StringBuilder();
+      for (int i = 0; i < requests.size(); i++) {
+         BatchRequest part = requests.get(i);
+         body.append("--").append(BOUNDARY).append(CRLF);
+         body.append("Content-Type: application/http").append(CRLF);
+         body.append("Content-Transfer-Encoding: binary").append(CRLF);
+         body.append("Content-ID: <item+").append(i + 1).append('>').append(CRLF);
+         body.append(CRLF);
+         body.append(part.method()).append(' ').append(part.path()).append(" HTTP/1.1").append(CRLF);
+         if (part.payload() != null) {
+            body.append("Content-Type: ").append(APPLICATION_JSON).append("; charset=UTF-8").append(CRLF);
+            body.append("Content-Length: ").append(part.payload().getBytes(Charsets.UTF_8).length).append(CRLF);
+            body.append(CRLF);
+            body.append(part.payload());
+         }
+         body.append(CRLF);
+      }
+      body.append("--").append(BOUNDARY).append("--").append(CRLF);
+
+      Payload payload = Payloads.newStringPayload(body.toString());
+      payload.getContentMetadata().setContentType("multipart/mixed; boundary=" + BOUNDARY);
+      request.setPayload(payload);
+      return request;
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.binders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.jclouds.googlecloudstorage.domain.BatchRequest;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectAccessControlsTemplate;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.json.Json;
+import org.jclouds.rest.MapBinder;
+import org.jclouds.util.Strings2;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Binds one object access control request per object into a batch. The operation follows from the parameters: a
+ * {@code template} without an {@code entity} inserts, an {@code entity} without a {@code template} deletes and both
+ * together patch.
+ */
+public final class ObjectAccessControlsBatchBinder implements MapBinder {
+
+   private final Json json;
+   private final BatchRequestsBinder batchRequestsBinder;
+
+   @Inject ObjectAccessControlsBatchBinder(Json json, BatchRequestsBinder batchRequestsBinder) {
+      this.json = json;
+      this.batchRequestsBinder = batchRequestsBinder;
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override public <R extends HttpRequest> R bindToRequest(R request, Map<String, Object> postParams) {
+      String bucket = (String) checkNotNull(postParams.get("bucket"), "bucket");
+      Iterable<String> objects = (Iterable<String>) checkNotNull(postParams.get("objects"), "objects");
+      String entity = (String) postParams.get("entity");
+      ObjectAccessControlsTemplate template = (ObjectAccessControlsTemplate) postParams.get("template");
+
+      String method;
+      String payload = null;
+      if (entity == null) {
+         method = "POST";
+         payload = json.toJson(checkNotNull(template, "template"));
+      } else if (template == null) {
+         method = "DELETE";
+      } else {
+         method = "PATCH";
+         payload = json.toJson(template);
+      }
+
+      ImmutableList.Builder<BatchRequest> requests = ImmutableList.builder();
+      for (String object : objects) {
+         String path = "/storage/v1/b/" + bucket + "/o/" + Strings2.urlEncode(object) + "/acl";
+         if (entity != null) {
+            path += "/" + Strings2.urlEncode(entity);
+         }
+         requests.add(BatchRequest.create(method, path, payload));
+      }
+      return batchRequestsBinder.bindToRequest(request, requests.build());
+   }
+
+   /** Binds a list of {@link BatchRequest}s that were already built, as {@link BatchRequestsBinder} does. */
+   @Override public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      checkArgument(input instanceof List, "expected the bucket, objects and entity or template parameters, or a "
+            + "list of batch requests, but was %s", input);
+      return batchRequestsBinder.bindToRequest(request, input);
+   }
+}
@@ -16,26 +16,39 @@
  */
 package org.jclouds.googlecloudstorage.blobstore;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.io.BaseEncoding.base64;
 import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectRole.READER;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.LIST_OBJECT_FIELDS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PARALLELISM;
 
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.Constants;
 import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
 import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.ContainerAccess;
 import org.jclouds.blobstore.domain.MultipartPart;
 import org.jclouds.blobstore.domain.MultipartUpload;
-import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
-import org.jclouds.blobstore.domain.internal.BlobImpl;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
 import org.jclouds.blobstore.functions.BlobToHttpGetOptions;
 import org.jclouds.blobstore.internal.BaseBlobStore;
@@ -44,41 +57,72 @@ import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
-import org.jclouds.blobstore.strategy.internal.FetchBlobMetadata;
+import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
 import org.jclouds.googlecloud.config.CurrentProject;
 import org.jclouds.googlecloud.domain.ListPage;
 import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.blobstore.cache.ContentCache;
+import org.jclouds.googlecloudstorage.blobstore.cache.MetadataCache;
+import org.jclouds.googlecloudstorage.blobstore.cache.NegativeLookupCache;
+import org.jclouds.googlecloudstorage.blobstore.cache.ReadCoalescer;
 import org.jclouds.googlecloudstorage.blobstore.functions.BlobMetadataToObjectTemplate;
 import org.jclouds.googlecloudstorage.blobstore.functions.BlobStoreListContainerOptionsToListObjectOptions;
 import org.jclouds.googlecloudstorage.blobstore.functions.BucketToStorageMetadata;
 import org.jclouds.googlecloudstorage.blobstore.functions.ObjectListToStorageMetadata;
 import org.jclouds.googlecloudstorage.blobstore.functions.ObjectToBlobMetadata;
+import org.jclouds.googlecloudstorage.blobstore.strategy.ComponentReaper;
+import org.jclouds.googlecloudstorage.blobstore.strategy.ComposeTreeStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.DeleteObjectsStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.HedgedReads;
+import org.jclouds.googlecloudstorage.blobstore.strategy.ParallelDownloadStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.ShardedListStrategy;
+import org.jclouds.googlecloudstorage.blobstore.strategy.WriteRateLimiter;
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
 import org.jclouds.googlecloudstorage.domain.Bucket;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences;
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
 import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
 import org.jclouds.googlecloudstorage.domain.ObjectAccessControls;
 import org.jclouds.googlecloudstorage.domain.templates.BucketTemplate;
-import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate.SourceObject;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectAccessControlsTemplate;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+import org.jclouds.googlecloudstorage.features.BatchApi;
+import org.jclouds.googlecloudstorage.features.ObjectAccessControlsApi;
+import org.jclouds.googlecloudstorage.handlers.AdaptiveConcurrencyLimiter;
 import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
 import org.jclouds.googlecloudstorage.options.ListObjectOptions;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.util.Strings2;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
-import com.google.inject.Provider;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
 
@@ -86,31 +130,79 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
    private final BucketToStorageMetadata bucketToStorageMetadata;
    private final ObjectToBlobMetadata objectToBlobMetadata;
    private final ObjectListToStorageMetadata objectListToStorageMetadata;
-   private final Provider<FetchBlobMetadata> fetchBlobMetadataProvider;
    private final BlobMetadataToObjectTemplate blobMetadataToObjectTemplate;
    private final BlobStoreListContainerOptionsToListObjectOptions listContainerOptionsToListObjectOptions;
    private final Supplier<String> projectId;
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
+   private final ParallelDownloadStrategy parallelDownloadStrategy;
+   private final ComposeTreeStrategy composeTreeStrategy;
+   private final ComponentReaper componentReaper;
+   private final DeleteObjectsStrategy deleteObjectsStrategy;
+   private final ShardedListStrategy shardedListStrategy;
+   private final ListeningExecutorService userExecutor;
+   private final int multipartUploadParallelism;
+   /** The multipart part size requested with {@code jclouds.mpu.parts.size}; 0 lets the slicing algorithm choose. */
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.mpu.parts.size")
+   private long requestedPartSize;
+   private final Set<ObjectField> listObjectFields;
+   private final boolean listsCompleteMetadata;
+   private final MetadataCache metadataCache;
+   private final NegativeLookupCache negativeLookupCache;
+   private final ContentCache contentCache;
+   private final ReadCoalescer readCoalescer;
+   private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+   private final WriteRateLimiter writeRateLimiter;
+   private final HedgedReads hedgedReads;
 
    @Inject GoogleCloudStorageBlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
-            @Memoized Supplier<Set<? extends Location>> locations, PayloadSlicer slicer, GoogleCloudStorageApi api,
-            BucketToStorageMetadata bucketToStorageMetadata, ObjectToBlobMetadata objectToBlobMetadata,
-            ObjectListToStorageMetadata objectListToStorageMetadata,
-            Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
+            @Memoized Supplier<Set<? extends Location>> locations, PayloadSlicer slicer,
+            GoogleCloudStorageApi api, BucketToStorageMetadata bucketToStorageMetadata,
+            ObjectToBlobMetadata objectToBlobMetadata, ObjectListToStorageMetadata objectListToStorageMetadata,
             BlobMetadataToObjectTemplate blobMetadataToObjectTemplate,
             BlobStoreListContainerOptionsToListObjectOptions listContainerOptionsToListObjectOptions,
             @CurrentProject Supplier<String> projectId,
-            BlobToHttpGetOptions blob2ObjectGetOptions) {
+            BlobToHttpGetOptions blob2ObjectGetOptions,
+            ParallelDownloadStrategy parallelDownloadStrategy, ComposeTreeStrategy composeTreeStrategy,
+            ComponentReaper componentReaper, DeleteObjectsStrategy deleteObjectsStrategy,
+            ShardedListStrategy shardedListStrategy,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(MULTIPART_UPLOAD_PARALLELISM) int multipartUploadParallelism,
+            @Named(LIST_OBJECT_FIELDS) String listObjectFields, MetadataCache metadataCache,
+            NegativeLookupCache negativeLookupCache, ContentCache contentCache, ReadCoalescer readCoalescer,
+            AdaptiveConcurrencyLimiter concurrencyLimiter, WriteRateLimiter writeRateLimiter,
+            HedgedReads hedgedReads) {
       super(context, blobUtils, defaultLocation, locations, slicer);
       this.api = api;
       this.bucketToStorageMetadata = bucketToStorageMetadata;
       this.objectToBlobMetadata = objectToBlobMetadata;
       this.objectListToStorageMetadata = objectListToStorageMetadata;
-      this.fetchBlobMetadataProvider = checkNotNull(fetchBlobMetadataProvider, "fetchBlobMetadataProvider");
       this.blobMetadataToObjectTemplate = blobMetadataToObjectTemplate;
       this.listContainerOptionsToListObjectOptions = listContainerOptionsToListObjectOptions;
       this.projectId = projectId;
       this.blob2ObjectGetOptions = checkNotNull(blob2ObjectGetOptions, "blob2ObjectGetOptions");
+      this.parallelDownloadStrategy = parallelDownloadStrategy;
+      this.composeTreeStrategy = composeTreeStrategy;
+      this.componentReaper = componentReaper;
+      this.deleteObjectsStrategy = deleteObjectsStrategy;
+      this.shardedListStrategy = shardedListStrategy;
+      this.userExecutor = userExecutor;
+      checkArgument(multipartUploadParallelism > 0, "%s must be positive", MULTIPART_UPLOAD_PARALLELISM);
+      this.multipartUploadParallelism = multipartUploadParallelism;
+      ImmutableSet.Builder<ObjectField> fields = ImmutableSet.builder();
+      for (String field : Splitter.on(',').trimResults().omitEmptyStrings().split(listObjectFields)) {
+         fields.add(ObjectField.fromValue(field));
+      }
+      this.listObjectFields = fields.build();
+      this.listsCompleteMetadata = this.listObjectFields.isEmpty()
+            || Sets.union(this.listObjectFields, ObjectField.REQUIRED).containsAll(ObjectToBlobMetadata.FIELDS);
+      this.metadataCache = metadataCache;
+      this.negativeLookupCache = negativeLookupCache;
+      this.contentCache = contentCache;
+      this.readCoalescer = readCoalescer;
+      this.concurrencyLimiter = concurrencyLimiter;
+      this.writeRateLimiter = writeRateLimiter;
+      this.hedgedReads = hedgedReads;
    }
 
    @Override
@@ -187,12 +279,26 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
       return list(container, ListContainerOptions.NONE);
    }
 
+   /**
+    * Lists one page of the container. Detailed listings need no further requests: objects.list returns every object
+    * property except the ACL, which blob metadata does not carry. Each object is restricted to the fields of
+    * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#LIST_OBJECT_FIELDS}, if any, and
+    * mapped to blob metadata by {@link ObjectListToStorageMetadata}.
+    */
    @Override
    public PageSet<? extends StorageMetadata> list(String container, ListContainerOptions options) {
       ListObjectOptions listOptions = listContainerOptionsToListObjectOptions.apply(options);
-      ListPageWithPrefixes<GoogleCloudStorageObject> gcsList = api.getObjectApi().listObjects(container, listOptions);
-      PageSet<? extends StorageMetadata> list = objectListToStorageMetadata.apply(gcsList);
-      return options.isDetailed() ? fetchBlobMetadataProvider.get().setContainerName(container).apply(list) : list;
+      if (!listObjectFields.isEmpty()) {
+         listOptions.fields(listObjectFields);
+      }
+      ListPageWithPrefixes<GoogleCloudStorageObject> objects = api.getObjectApi().listObjects(container,
+            listOptions);
+      if (objects != null && metadataCache.isEnabled() && listsCompleteMetadata) {
+         for (GoogleCloudStorageObject object : objects) {
+            metadataCache.put(container, objectToBlobMetadata.apply(object), object.generation());
+         }
+      }
+      return objectListToStorageMetadata.apply(objects);
    }
 
    /**
@@ -200,8 +306,25 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
     * BucketExist or ObjectExist operations
     */
    @Override
-   public boolean blobExists(String container, String name) {
-      return api.getObjectApi().objectExists(container, Strings2.urlEncode(name));
+   public boolean blobExists(final String container, String name) {
+      if (metadataCache.isEnabled()) {
+         // fetching the metadata costs the same request and populates the cache
+         return blobMetadata(container, name) != null;
+      }
+      if (negativeLookupCache.isKnownMissing(container, name)) {
+         return false;
+      }
+      final String encodedName = Strings2.urlEncode(name);
+      boolean exists = hedgedReads.call(new Callable<Boolean>() {
+         @Override
+         public Boolean call() {
+            return api.getObjectApi().objectExists(container, encodedName);
+         }
+      });
+      if (!exists) {
+         negativeLookupCache.recordMissing(container, name);
+      }
+      return exists;
    }
 
    /**
@@ -235,34 +358,274 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
             template.addAcl(controls);
          }
 
-         return api.getObjectApi().multipartUpload(container, template, blob.getPayload()).etag();
+         awaitWriteTurn(container, blob.getMetadata().getName());
+         return cacheWritten(container, api.getObjectApi().multipartUpload(container, template, blob.getPayload()));
+      }
+   }
+
+   /**
+    * Uploads the parts of a repeatable payload concurrently, at most {@code multipartUploadParallelism} at a time, and
+    * composes them into the final object. Non-repeatable payloads can only be sliced in order and are uploaded
+    * sequentially.
+    * <p>
+    * Slicing stops as soon as a part fails. The parts already uploading are allowed to finish before the upload is
+    * aborted, so that none of them is left behind by the abort.
+    */
+   @Override
+   protected String putMultipartBlob(String container, Blob blob, PutOptions overrides) {
+      if (!blob.getPayload().isRepeatable()) {
+         return super.putMultipartBlob(container, blob, overrides);
+      }
+      MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), overrides);
+      List<ListenableFuture<MultipartPart>> futures = Lists.newArrayList();
+      AtomicBoolean failed = new AtomicBoolean();
+      try {
+         long contentLength = checkNotNull(blob.getMetadata().getContentMetadata().getContentLength(),
+               "contentLength");
+         long partSize = partSize(contentLength);
+         Semaphore inFlight = new Semaphore(multipartUploadParallelism);
+         int partNumber = 1;
+         for (Payload payload : slicer.slice(blob.getPayload(), partSize)) {
+            inFlight.acquire();
+            if (failed.get()) {
+               // a part failed; allAsList reports its exception
+               inFlight.release();
+               break;
+            }
+            futures.add(submitPart(mpu, partNumber++, payload, inFlight, failed));
+         }
+         List<MultipartPart> parts = Futures.allAsList(futures).get();
+         return completeMultipartUpload(mpu, parts);
+      } catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         abortMultipartUpload(mpu, futures, failed);
+         throw Throwables.propagate(ie);
+      } catch (ExecutionException ee) {
+         abortMultipartUpload(mpu, futures, failed);
+         throw Throwables.propagate(ee.getCause());
+      } catch (RuntimeException re) {
+         abortMultipartUpload(mpu, futures, failed);
+         throw re;
+      }
+   }
+
+   private long partSize(long contentLength) {
+      if (requestedPartSize > 0) {
+         long partSize = Math.max(getMinimumMultipartPartSize(), Math.min(requestedPartSize,
+               getMaximumMultipartPartSize()));
+         if (contentLength / partSize < getMaximumNumberOfParts()) {
+            return partSize;
+         }
+      }
+      return new MultipartUploadSlicingAlgorithm(getMinimumMultipartPartSize(), getMaximumMultipartPartSize(),
+            getMaximumNumberOfParts()).calculateChunkSize(contentLength);
+   }
+
+   /**
+    * Uploads a part unless another part has already failed, in which case it returns null without uploading. A failure
+    * is flagged before the part's permit is released, so the slicing loop sees it on its next acquire.
+    */
+   private ListenableFuture<MultipartPart> submitPart(final MultipartUpload mpu, final int partNumber,
+         final Payload payload, final Semaphore inFlight, final AtomicBoolean failed) {
+      try {
+         return userExecutor.submit(new Callable<MultipartPart>() {
+            @Override
+            public MultipartPart call() throws InterruptedException {
+               try {
+                  if (failed.get()) {
+                     return null;
+                  }
+                  concurrencyLimiter.acquire(mpu.containerName());
+                  try {
+                     return uploadMultipartPart(mpu, partNumber, payload);
+                  } finally {
+                     concurrencyLimiter.release(mpu.containerName());
+                  }
+               } catch (InterruptedException ie) {
+                  failed.set(true);
+                  throw ie;
+               } catch (RuntimeException re) {
+                  failed.set(true);
+                  throw re;
+               } finally {
+                  inFlight.release();
+               }
+            }
+         });
+      } catch (RuntimeException re) {
+         failed.set(true);
+         inFlight.release();
+         throw re;
+      }
+   }
+
+   /**
+    * Stops the parts that have not started, waits for those already uploading and then deletes every uploaded part.
+    * Cancelling the futures instead would not stop a part whose request is already on the wire.
+    */
+   private void abortMultipartUpload(MultipartUpload mpu, List<ListenableFuture<MultipartPart>> futures,
+         AtomicBoolean failed) {
+      failed.set(true);
+      try {
+         Uninterruptibles.getUninterruptibly(Futures.successfulAsList(futures));
+      } catch (ExecutionException impossible) {
+         // successfulAsList never fails
       }
+      abortMultipartUpload(mpu);
    }
 
    @Override
-   public BlobMetadata blobMetadata(String container, String name) {
-      return objectToBlobMetadata.apply(api.getObjectApi().getObject(container, Strings2.urlEncode(name)));
+   public BlobMetadata blobMetadata(final String container, final String name) {
+      BlobMetadata metadata = metadataCache.get(container, name);
+      if (metadata != null) {
+         return metadata;
+      }
+      if (negativeLookupCache.isKnownMissing(container, name)) {
+         return null;
+      }
+      return readCoalescer.blobMetadata(container, name, new Callable<BlobMetadata>() {
+         @Override
+         public BlobMetadata call() {
+            return fetchBlobMetadata(container, name);
+         }
+      });
+   }
+
+   private BlobMetadata fetchBlobMetadata(final String container, String name) {
+      final String encodedName = Strings2.urlEncode(name);
+      GoogleCloudStorageObject object = hedgedReads.call(new Callable<GoogleCloudStorageObject>() {
+         @Override
+         public GoogleCloudStorageObject call() {
+            return api.getObjectApi().getObject(container, encodedName);
+         }
+      });
+      if (object == null) {
+         negativeLookupCache.recordMissing(container, name);
+         return null;
+      }
+      BlobMetadata metadata = objectToBlobMetadata.apply(object);
+      metadataCache.put(container, metadata, object.generation());
+      return metadata;
+   }
+
+   /** Returns the hit and miss counts of the metadata cache, which are all zero when it is disabled. */
+   public CacheStats getMetadataCacheStats() {
+      return metadataCache.stats();
+   }
+
+   /** Returns the hit and miss counts of remembered missing objects, which are all zero when they are not cached. */
+   public CacheStats getNegativeLookupCacheStats() {
+      return negativeLookupCache.stats();
+   }
+
+   /**
+    * Lists the names under a prefix into a Bloom filter, so that existence checks for names it has not seen are
+    * answered without a request until the filter expires. Meant for bulk deduplication against a prefix that other
+    * clients do not write to.
+    *
+    * @param prefix
+    *           unencoded name prefix, or null for the whole bucket
+    */
+   public void primeNegativeLookupCache(String container, @Nullable String prefix, long validity, TimeUnit unit) {
+      negativeLookupCache.prime(container, prefix, validity, unit);
+   }
+
+   /** Waits until a write to the named object is within the configured write rates. */
+   private void awaitWriteTurn(String container, String name) {
+      if (writeRateLimiter.isEnabled()) {
+         try {
+            writeRateLimiter.acquire(container, name);
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ie);
+         }
+      }
+   }
+
+   /** Waits until writes to all the named objects are within the configured write rates. */
+   private void awaitWriteTurn(String container, List<String> names) {
+      if (writeRateLimiter.isEnabled()) {
+         try {
+            writeRateLimiter.acquire(container, names);
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ie);
+         }
+      }
+   }
+
+   /** Caches the metadata of an object this blobstore has just written and returns its etag. */
+   private String cacheWritten(String container, GoogleCloudStorageObject object) {
+      negativeLookupCache.recordWritten(container, object.name());
+      readCoalescer.invalidate(container, object.name());
+      metadataCache.put(container, objectToBlobMetadata.apply(object), object.generation());
+      return object.etag();
    }
 
    @Override
-   public Blob getBlob(String container, String name, GetOptions options) {
-      GoogleCloudStorageObject gcsObject = api.getObjectApi().getObject(container, Strings2.urlEncode(name));
-      if (gcsObject == null) {
+   public Blob getBlob(final String container, final String name, GetOptions options) {
+      if (negativeLookupCache.isKnownMissing(container, name)) {
          return null;
       }
-      org.jclouds.http.options.GetOptions httpOptions = blob2ObjectGetOptions.apply(options);
-      MutableBlobMetadata metadata = objectToBlobMetadata.apply(gcsObject);
-      Blob blob = new BlobImpl(metadata);
-      // TODO: Does getObject not get the payload?!
-      Payload payload = api.getObjectApi().download(container, Strings2.urlEncode(name), httpOptions).getPayload();
-      payload.setContentMetadata(metadata.getContentMetadata()); // Doing this first retains it on setPayload.
-      blob.setPayload(payload);
+      Blob blob;
+      if (options == GetOptions.NONE) {
+         blob = readCoalescer.getBlob(container, name, new Callable<Blob>() {
+            @Override
+            public Blob call() {
+               return downloadWholeBlob(container, name);
+            }
+         });
+      } else {
+         blob = download(container, name, options);
+      }
+      if (blob == null) {
+         negativeLookupCache.recordMissing(container, name);
+      }
       return blob;
    }
 
+   private Blob downloadWholeBlob(String container, String name) {
+      if (contentCache.isEnabled()) {
+         return contentCache.get(container, name);
+      }
+      return download(container, name, GetOptions.NONE);
+   }
+
+   private Blob download(final String container, String name, GetOptions options) {
+      final String encodedName = Strings2.urlEncode(name);
+      final org.jclouds.http.options.GetOptions httpOptions = blob2ObjectGetOptions.apply(options);
+      return hedgedReads.call(new Callable<Blob>() {
+         @Override
+         public Blob call() {
+            return api.getObjectApi().downloadBlob(container, encodedName, httpOptions);
+         }
+      });
+   }
+
+   /**
+    * Downloads a blob into a local file, fetching ranges of the object concurrently on the user executor. The download
+    * fails if the object is overwritten while in progress or if the result does not match the object's hash.
+    */
+   public void downloadBlob(String container, String name, Path destination) {
+      parallelDownloadStrategy.execute(container, name, destination);
+   }
+
+   /**
+    * Lists every object under a prefix with several concurrent cursors, one per delimiter-derived prefix.
+    * Unordered listings hand out objects as soon as any cursor has them; sorted ones merge the cursors in name order.
+    * The returned listing must be drained or closed.
+    */
+   public ShardedListStrategy.Listing listAll(String container, @Nullable String prefix, boolean sorted) {
+      return shardedListStrategy.execute(container, prefix, sorted);
+   }
+
    @Override
    public void removeBlob(String container, String name) {
+      awaitWriteTurn(container, name);
       api.getObjectApi().deleteObject(container, Strings2.urlEncode(name));
+      readCoalescer.invalidate(container, name);
+      metadataCache.invalidate(container, name);
+      contentCache.invalidate(container, name);
    }
 
    @Override
@@ -278,6 +641,7 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
 
    @Override
    public void setBlobAccess(String container, String name, BlobAccess access) {
+      awaitWriteTurn(container, name);
       if (access == BlobAccess.PUBLIC_READ) {
          ObjectAccessControls controls = ObjectAccessControls.builder()
                .entity("allUsers")
@@ -288,13 +652,111 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
       } else {
          api.getObjectAccessControlsApi().deleteObjectAccessControls(container, Strings2.urlEncode(name), "allUsers");
       }
+      // changing the ACL changes the etag
+      metadataCache.invalidate(container, name);
+   }
+
+   /**
+    * Sets the access of many blobs with batch requests, granting or revoking {@code allUsers} read access on
+    * {@value BatchApi#MAX_BATCH_SIZE} blobs per request.
+    */
+   public void setBlobAccess(String container, Iterable<String> names, BlobAccess access) {
+      ObjectAccessControlsApi aclApi = api.getObjectAccessControlsApi();
+      Map<String, Integer> failures = Maps.newLinkedHashMap();
+      for (List<String> batch : Iterables.partition(names, BatchApi.MAX_BATCH_SIZE)) {
+         awaitWriteTurn(container, batch);
+         List<BatchResponse> responses;
+         if (access == BlobAccess.PUBLIC_READ) {
+            responses = aclApi.createObjectAccessControls(container, batch,
+                  ObjectAccessControlsTemplate.create("allUsers", READER));
+         } else {
+            responses = aclApi.deleteObjectAccessControls(container, batch, "allUsers");
+         }
+         checkState(responses.size() == batch.size(), "expected %s batch responses, got %s", batch.size(),
+               responses.size());
+         for (int i = 0; i < batch.size(); i++) {
+            BatchResponse response = responses.get(i);
+            metadataCache.invalidate(container, batch.get(i));
+            // revoking access that was never granted is not an error
+            if (!response.isSuccessful() && !(access == BlobAccess.PRIVATE && response.statusCode() == 404)) {
+               failures.put(batch.get(i), response.statusCode());
+            }
+         }
+      }
+      if (!failures.isEmpty()) {
+         throw new IllegalStateException(String.format("could not set access of %d objects in %s: %s",
+               failures.size(), container, failures));
+      }
+   }
+
+   /** Deletes the objects with batch requests of up to {@value BatchApi#MAX_BATCH_SIZE} deletes each. */
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      deleteBlobs(container, names);
+      for (String name : names) {
+         readCoalescer.invalidate(container, name);
+         metadataCache.invalidate(container, name);
+         contentCache.invalidate(container, name);
+      }
+   }
+
+   private void deleteBlobs(String container, Iterable<String> names) {
+      Map<String, Integer> failures = deleteObjectsStrategy.execute(container, names);
+      if (!failures.isEmpty()) {
+         throw new IllegalStateException(String.format("could not delete %d objects from %s: %s", failures.size(),
+               container, failures));
+      }
+   }
+
+   /** Deletes the listed objects with batch requests while later pages of the listing are fetched. */
+   @Override
+   public void clearContainer(final String container, final ListContainerOptions options) {
+      // the names are listed lazily, so the whole bucket is invalidated rather than listing it twice
+      try {
+         clearListed(container, options);
+      } finally {
+         readCoalescer.invalidatePrefix(container, null);
+         metadataCache.invalidatePrefix(container, null);
+         contentCache.invalidatePrefix(container, null);
+      }
+   }
+
+   private void clearListed(final String container, final ListContainerOptions options) {
+      deleteBlobs(container, new FluentIterable<String>() {
+         @Override
+         public Iterator<String> iterator() {
+            ListObjectOptions listOptions = listContainerOptionsToListObjectOptions.apply(options)
+                  .fields(ObjectField.REQUIRED);
+            // the first page is fetched directly so that a missing bucket is reported whether or not it is bounded
+            ListPageWithPrefixes<GoogleCloudStorageObject> page = api.getObjectApi().listObjects(container,
+                  listOptions);
+            if (page == null) {
+               throw new ContainerNotFoundException(container, null);
+            }
+            Iterator<GoogleCloudStorageObject> objects = page.iterator();
+            // a bounded clear only covers the first page
+            if (options.getMaxResults() == null && page.nextPageToken() != null) {
+               objects = Iterators.concat(objects, api.getObjectApi().listObjectsAll(container,
+                     listOptions.pageToken(page.nextPageToken())));
+            }
+            return Iterators.transform(objects, new Function<GoogleCloudStorageObject, String>() {
+               @Override
+               public String apply(GoogleCloudStorageObject object) {
+                  return object.name();
+               }
+            });
+         }
+      });
    }
 
    @Override
    protected boolean deleteAndVerifyContainerGone(String container) {
-      ListPageWithPrefixes<GoogleCloudStorageObject> list = api.getObjectApi().listObjects(container);
+      // a single name is enough to tell whether the bucket is empty
+      ListPageWithPrefixes<GoogleCloudStorageObject> list = api.getObjectApi().listObjects(container,
+            new ListObjectOptions().maxResults(1).fields(ObjectField.REQUIRED));
 
       if (list == null || (!list.iterator().hasNext() && list.prefixes().isEmpty())) {
+         metadataCache.invalidatePrefix(container, null);
          if (!api.getBucketApi().deleteBucket(container)) {
             return true;
          } else {
@@ -321,9 +783,10 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
          throw new UnsupportedOperationException("GCS does not support ifUnmodifiedSince");
       }
 
+      awaitWriteTurn(toContainer, toName);
       if (options.contentMetadata() == null && options.userMetadata() == null) {
-         return api.getObjectApi().copyObject(toContainer, Strings2.urlEncode(toName), fromContainer,
-               Strings2.urlEncode(fromName)).etag();
+         return cacheWritten(toContainer, api.getObjectApi().copyObject(toContainer, Strings2.urlEncode(toName),
+               fromContainer, Strings2.urlEncode(fromName)));
       }
 
       ObjectTemplate template = new ObjectTemplate();
@@ -360,8 +823,8 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
          template.customMetadata(options.userMetadata());
       }
 
-      return api.getObjectApi().copyObject(toContainer, Strings2.urlEncode(toName), fromContainer,
-            Strings2.urlEncode(fromName), template).etag();
+      return cacheWritten(toContainer, api.getObjectApi().copyObject(toContainer, Strings2.urlEncode(toName),
+            fromContainer, Strings2.urlEncode(fromName), template));
    }
 
    @Override
@@ -373,19 +836,28 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
    @Override
    public void abortMultipartUpload(MultipartUpload mpu) {
       ImmutableList.Builder<String> builder = ImmutableList.builder();
-      List<MultipartPart> parts = listMultipartUpload(mpu);
-      for (MultipartPart part : parts) {
-         builder.add(getMPUPartName(mpu, part.partNumber()));
+      for (GoogleCloudStorageObject part : listMPUParts(mpu)) {
+         builder.add(part.name());
       }
       removeBlobs(mpu.containerName(), builder.build());
    }
 
    @Override
    public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
-      ImmutableList.Builder<GoogleCloudStorageObject> builder = ImmutableList.builder();
+      Map<String, GoogleCloudStorageObject> uploaded = Maps.newHashMap();
+      for (GoogleCloudStorageObject object : listMPUParts(mpu)) {
+         uploaded.put(object.name(), object);
+      }
+      ImmutableList.Builder<SourceObject> sources = ImmutableList.builder();
+      ImmutableList.Builder<String> components = ImmutableList.builder();
       for (MultipartPart part : parts) {
-         builder.add(api.getObjectApi().getObject(mpu.containerName(),
-               Strings2.urlEncode(getMPUPartName(mpu, part.partNumber()))));
+         GoogleCloudStorageObject object = uploaded.get(getMPUPartName(mpu, part.partNumber()));
+         if (object == null) {
+            throw new IllegalStateException(String.format("part %d of %s/%s not found", part.partNumber(),
+                  mpu.containerName(), mpu.blobName()));
+         }
+         sources.add(SourceObject.createWithPrecondition(object.name(), object.generation(), object.generation()));
+         components.add(object.name());
       }
 
       ObjectTemplate destination = blobMetadataToObjectTemplate.apply(mpu.blobMetadata());
@@ -398,11 +870,12 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
          destination.addAcl(controls);
       }
 
-      ComposeObjectTemplate template = ComposeObjectTemplate.builder().fromGoogleCloudStorageObject(builder.build())
-            .destination(destination).build();
-      return api.getObjectApi().composeObjects(mpu.containerName(), Strings2.urlEncode(mpu.blobName()), template)
-            .etag();
-      // TODO: delete components?
+      destination.name(mpu.blobName());
+      awaitWriteTurn(mpu.containerName(), mpu.blobName());
+      GoogleCloudStorageObject composed = composeTreeStrategy.execute(mpu.containerName(), mpu.id(), sources.build(),
+            destination);
+      componentReaper.reap(mpu.containerName(), components.build());
+      return cacheWritten(mpu.containerName(), composed);
    }
 
    @Override
@@ -410,6 +883,7 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
       String partName = getMPUPartName(mpu, partNumber);
       long partSize = payload.getContentMetadata().getContentLength();
       InsertObjectOptions insertOptions = new InsertObjectOptions().name(partName);
+      awaitWriteTurn(mpu.containerName(), partName);
       GoogleCloudStorageObject object = api.getObjectApi().simpleUpload(mpu.containerName(),
             mpu.blobMetadata().getContentMetadata().getContentType(), partSize, payload, insertOptions);
       return MultipartPart.create(partNumber, partSize, object.etag());
@@ -418,17 +892,33 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
    @Override
    public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
       ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
-      PageSet<? extends StorageMetadata> pageSet = list(mpu.containerName(),
-            new ListContainerOptions().prefix(mpu.blobName() + "_"));
-      // TODO: pagination
-      for (StorageMetadata sm : pageSet) {
-         int lastUnderscore = sm.getName().lastIndexOf('_');
-         int partNumber = Integer.parseInt(sm.getName().substring(lastUnderscore + 1));
-         parts.add(MultipartPart.create(partNumber, sm.getSize(), sm.getETag()));
+      for (GoogleCloudStorageObject object : listMPUParts(mpu)) {
+         parts.add(MultipartPart.create(getMPUPartNumber(mpu, object.name()), object.size(), object.etag()));
       }
       return parts.build();
    }
 
+   /**
+    * Lists the uploaded parts of a multipart upload. Pages are fetched lazily as the iterator advances, and each
+    * request asks only for the {@link ObjectField#REQUIRED} fields, so only one page of parts is held at a time.
+    */
+   private Iterable<GoogleCloudStorageObject> listMPUParts(final MultipartUpload mpu) {
+      return new FluentIterable<GoogleCloudStorageObject>() {
+         @Override
+         public Iterator<GoogleCloudStorageObject> iterator() {
+            Iterator<GoogleCloudStorageObject> objects = api.getObjectApi().listObjectsAll(mpu.containerName(),
+                  new ListObjectOptions().prefix(mpu.id() + "_").fields(ObjectField.REQUIRED));
+            return Iterators.filter(objects, new Predicate<GoogleCloudStorageObject>() {
+               @Override
+               public boolean apply(GoogleCloudStorageObject object) {
+                  // the prefix also matches blobs that merely start with the upload id
+                  return getMPUPartNumber(mpu, object.name()) != -1;
+               }
+            });
+         }
+      };
+   }
+
    @Override
    public long getMinimumMultipartPartSize() {
       return 5L * 1024L * 1024L;
@@ -441,11 +931,21 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
 
    @Override
    public int getMaximumNumberOfParts() {
-      // TODO: should this be 32?  See: https://cloud.google.com/storage/docs/composite-objects
+      // Compose accepts 32 sources per request; ComposeTreeStrategy composes larger uploads in several levels.
       return 10 * 1000;
    }
 
    private static String getMPUPartName(MultipartUpload mpu, int partNumber) {
       return String.format("%s_%08d", mpu.id(), partNumber);
    }
+
+   /** Returns the part number encoded in an object name, or -1 if the name is not a part of the upload. */
+   private static int getMPUPartNumber(MultipartUpload mpu, String name) {
+      String prefix = mpu.id() + "_";
+      if (name.length() != prefix.length() + 8 || !name.startsWith(prefix)) {
+         return -1;
+      }
+      String digits = name.substring(prefix.length());
+      return CharMatcher.DIGIT.matchesAllOf(digits) ? Integer.parseInt(digits) : -1;
+   }
 }
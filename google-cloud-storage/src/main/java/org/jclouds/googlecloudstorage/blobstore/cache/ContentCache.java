@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_DIRECTORY;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_DISK_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_MEMORY_SIZE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.options.GetObjectOptions;
+import org.jclouds.googlecloudstorage.parser.ParseToBlob;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.jclouds.util.Strings2;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+/**
+ * Keeps downloaded object content locally, in memory and optionally on disk, and revalidates it on every read with an
+ * {@code ifGenerationNotMatch} precondition: while the object is unchanged the service answers 304 Not Modified and
+ * the local copy is returned, so only a small request is made. A new generation is downloaded and replaces the copy.
+ * <p>
+ * Each tier only holds objects of at most an eighth of its size, and evicts the least recently used entries beyond
+ * its size. Disk entries are only indexed in memory; files left in the directory by an earlier process are deleted.
+ */
+@Singleton
+public final class ContentCache {
+
+   static final String FILE_SUFFIX = ".gcs-cache";
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final GoogleCloudStorageApi api;
+   @Nullable private final Cache<String, Entry> memory;
+   private final long memoryEntryLimit;
+   @Nullable private final Path directory;
+   private final long diskSize;
+   private final long diskEntryLimit;
+   /** Disk entries in access order, guarded by itself. */
+   private final LinkedHashMap<String, Entry> disk = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+   private long diskUsed;
+
+   @Inject ContentCache(GoogleCloudStorageApi api, @Named(CONTENT_CACHE_MEMORY_SIZE) long memorySize,
+         @Named(CONTENT_CACHE_DIRECTORY) String directory, @Named(CONTENT_CACHE_DISK_SIZE) long diskSize) {
+      checkArgument(memorySize >= 0, "%s must not be negative", CONTENT_CACHE_MEMORY_SIZE);
+      checkArgument(diskSize > 0, "%s must be positive", CONTENT_CACHE_DISK_SIZE);
+      this.api = api;
+      this.memoryEntryLimit = Math.min(memorySize / 8, Integer.MAX_VALUE - 8);
+      this.memory = memorySize == 0 ? null : CacheBuilder.newBuilder()
+            .maximumWeight(memorySize)
+            .weigher(new Weigher<String, Entry>() {
+               @Override
+               public int weigh(String key, Entry entry) {
+                  return entry.bytes.length;
+               }
+            })
+            .<String, Entry> build();
+      this.directory = directory.isEmpty() ? null : Paths.get(directory);
+      this.diskSize = diskSize;
+      this.diskEntryLimit = diskSize / 8;
+      if (this.directory != null) {
+         deleteStaleFiles(this.directory);
+      }
+   }
+
+   public boolean isEnabled() {
+      return memory != null || directory != null;
+   }
+
+   /**
+    * Returns the object, revalidating a local copy or downloading it.
+    *
+    * @return the object, or null if it does not exist
+    */
+   @Nullable
+   public Blob get(String container, String name) {
+      String key = key(container, name);
+      Entry cached = lookup(key);
+      Blob blob;
+      if (cached == null) {
+         blob = api.getObjectApi().downloadBlob(container, Strings2.urlEncode(name), new GetObjectOptions());
+      } else {
+         try {
+            blob = api.getObjectApi().downloadBlobIfModified(container, Strings2.urlEncode(name),
+                  new GetObjectOptions().ifGenerationNotMatch(cached.generation));
+         } catch (ResourceNotFoundException e) {
+            invalidate(container, name);
+            return null;
+         }
+         if (blob == null) {
+            // not modified
+            Blob local = toBlob(cached);
+            if (local != null) {
+               return local;
+            }
+            // the file was evicted or removed meanwhile
+            invalidate(container, name);
+            return get(container, name);
+         }
+      }
+      if (blob == null) {
+         invalidate(container, name);
+         return null;
+      }
+      return store(key, blob);
+   }
+
+   public void invalidate(String container, String name) {
+      String key = key(container, name);
+      if (memory != null) {
+         memory.invalidate(key);
+      }
+      synchronized (disk) {
+         Entry removed = disk.remove(key);
+         if (removed != null) {
+            release(removed);
+         }
+      }
+   }
+
+   /** Drops the content of every object whose name starts with the prefix, or of the whole bucket if it is null. */
+   public void invalidatePrefix(String container, @Nullable String prefix) {
+      String keyPrefix = key(container, prefix == null ? "" : prefix);
+      if (memory != null) {
+         for (String key : memory.asMap().keySet()) {
+            if (key.startsWith(keyPrefix)) {
+               memory.invalidate(key);
+            }
+         }
+      }
+      synchronized (disk) {
+         for (Iterator<Map.Entry<String, Entry>> entries = disk.entrySet().iterator(); entries.hasNext();) {
+            Map.Entry<String, Entry> entry = entries.next();
+            if (entry.getKey().startsWith(keyPrefix)) {
+               entries.remove();
+               release(entry.getValue());
+            }
+         }
+      }
+   }
+
+   @Nullable
+   private Entry lookup(String key) {
+      Entry entry = memory == null ? null : memory.getIfPresent(key);
+      if (entry == null) {
+         synchronized (disk) {
+            entry = disk.get(key);
+         }
+      }
+      return entry;
+   }
+
+   /** Keeps the content of a fresh download and returns a blob reading the kept copy. */
+   private Blob store(String key, Blob blob) {
+      String generation = blob.getAllHeaders() == null ? null
+            : getFirst(blob.getAllHeaders().get(ParseToBlob.GENERATION));
+      Long length = blob.getMetadata().getContentMetadata().getContentLength();
+      if (generation == null || length == null || blob.getPayload() == null
+            || (length > memoryEntryLimit && (directory == null || length > diskEntryLimit))) {
+         return blob;
+      }
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(blob.getMetadata());
+      InputStream is = null;
+      try {
+         is = blob.getPayload().openStream();
+         Entry entry;
+         if (memory != null && length <= memoryEntryLimit) {
+            byte[] bytes = ByteStreams.toByteArray(is);
+            entry = new Entry(Long.parseLong(generation), metadata, bytes, null);
+            memory.put(key, entry);
+            if (directory != null) {
+               putOnDisk(key, new Entry(entry.generation, metadata, null, write(key, entry.generation, bytes)));
+            }
+         } else {
+            entry = new Entry(Long.parseLong(generation), metadata, null, write(key, Long.parseLong(generation), is));
+            putOnDisk(key, entry);
+         }
+         Blob local = toBlob(entry);
+         return local != null ? local : blob;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         Closeables.closeQuietly(is);
+      }
+   }
+
+   private Path write(String key, long generation, byte[] bytes) throws IOException {
+      Path temp = Files.createTempFile(directory, "gcs-", ".tmp");
+      Files.write(temp, bytes);
+      return moveIntoPlace(temp, key, generation);
+   }
+
+   private Path write(String key, long generation, InputStream is) throws IOException {
+      Path temp = Files.createTempFile(directory, "gcs-", ".tmp");
+      Files.copy(is, temp, StandardCopyOption.REPLACE_EXISTING);
+      return moveIntoPlace(temp, key, generation);
+   }
+
+   private Path moveIntoPlace(Path temp, String key, long generation) throws IOException {
+      String file = Hashing.sha256().hashUnencodedChars(key).toString() + "-" + generation + FILE_SUFFIX;
+      return Files.move(temp, directory.resolve(file), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+   }
+
+   private void putOnDisk(String key, Entry entry) throws IOException {
+      synchronized (disk) {
+         Entry replaced = disk.put(key, entry);
+         if (replaced != null && !replaced.file.equals(entry.file)) {
+            release(replaced);
+         } else if (replaced != null) {
+            diskUsed -= replaced.length;
+         }
+         diskUsed += entry.length;
+         for (Iterator<Entry> eldest = disk.values().iterator(); diskUsed > diskSize && eldest.hasNext();) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            release(evicted);
+         }
+      }
+   }
+
+   /** Forgets a disk entry that has been removed from the index; called while holding the index lock. */
+   private void release(Entry entry) {
+      diskUsed -= entry.length;
+      try {
+         Files.deleteIfExists(entry.file);
+      } catch (IOException e) {
+         logger.warn(e, "could not delete cached content %s", entry.file);
+      }
+   }
+
+   /** Returns a blob reading the kept content, or null if its file has been evicted. */
+   @Nullable
+   private static Blob toBlob(Entry entry) {
+      Payload payload;
+      if (entry.bytes != null) {
+         payload = Payloads.newByteArrayPayload(entry.bytes);
+      } else {
+         try {
+            // open now, so that a later eviction cannot remove the file from under the caller
+            payload = Payloads.newInputStreamPayload(Files.newInputStream(entry.file));
+         } catch (IOException e) {
+            return null;
+         }
+      }
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(entry.metadata);
+      Blob blob = new BlobImpl(metadata);
+      payload.setContentMetadata(metadata.getContentMetadata()); // Doing this first retains it on setPayload.
+      blob.setPayload(payload);
+      return blob;
+   }
+
+   private void deleteStaleFiles(Path directory) {
+      try {
+         Files.createDirectories(directory);
+         DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX);
+         try {
+            for (Path file : files) {
+               Files.deleteIfExists(file);
+            }
+         } finally {
+            files.close();
+         }
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   @Nullable
+   private static String getFirst(@Nullable Iterable<String> values) {
+      if (values == null) {
+         return null;
+      }
+      Iterator<String> it = values.iterator();
+      return it.hasNext() ? it.next() : null;
+   }
+
+   private static String key(String container, String name) {
+      // bucket names cannot contain '/'
+      return container + '/' + name;
+   }
+
+   /** Content of one generation of an object, held either in memory or in a file. */
+   private static final class Entry {
+      private final long generation;
+      private final BlobMetadata metadata;
+      @Nullable private final byte[] bytes;
+      @Nullable private final Path file;
+      private final long length;
+
+      Entry(long generation, BlobMetadata metadata, @Nullable byte[] bytes, @Nullable Path file) throws IOException {
+         this.generation = generation;
+         this.metadata = metadata;
+         this.bytes = bytes;
+         this.file = file;
+         this.length = bytes != null ? bytes.length : Files.size(file);
+      }
+   }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METADATA_CACHE_MAX_WEIGHT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METADATA_CACHE_TTL;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+/**
+ * Caches blob metadata by bucket and object name so that repeated {@code blobExists} and {@code blobMetadata} calls
+ * for hot objects skip the network. Entries expire after {@link
+ * org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#METADATA_CACHE_TTL} and are evicted once the
+ * estimated size of all entries exceeds {@link
+ * org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#METADATA_CACHE_MAX_WEIGHT}. The cache is
+ * disabled when the TTL is zero.
+ * <p>
+ * Only writes made through this blobstore invalidate entries; changes made by other clients are seen once the
+ * entry expires. An entry is never replaced by the metadata of an older generation, so a read that raced with a write
+ * cannot bring back what the write replaced. Entries are copied in and out, so callers may modify the metadata they
+ * are given.
+ */
+@Singleton
+public final class MetadataCache {
+
+   /** A rough per-entry overhead, in bytes, for the metadata objects and the cache node. */
+   private static final int ENTRY_OVERHEAD = 512;
+
+   @Nullable private final Cache<String, Entry> cache;
+
+   @Inject MetadataCache(@Named(METADATA_CACHE_TTL) long ttl, @Named(METADATA_CACHE_MAX_WEIGHT) long maxWeight) {
+      checkArgument(ttl >= 0, "%s must not be negative", METADATA_CACHE_TTL);
+      checkArgument(maxWeight > 0, "%s must be positive", METADATA_CACHE_MAX_WEIGHT);
+      if (ttl == 0) {
+         this.cache = null;
+      } else {
+         this.cache = CacheBuilder.newBuilder()
+               .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+               .maximumWeight(maxWeight)
+               .weigher(new Weigher<String, Entry>() {
+                  @Override
+                  public int weigh(String key, Entry entry) {
+                     return weight(key, entry.metadata);
+                  }
+               })
+               .recordStats()
+               .build();
+      }
+   }
+
+   public boolean isEnabled() {
+      return cache != null;
+   }
+
+   /** Returns a copy of the cached metadata, or null on a miss or if the cache is disabled. */
+   @Nullable
+   public BlobMetadata get(String container, String name) {
+      if (cache == null) {
+         return null;
+      }
+      Entry entry = cache.getIfPresent(key(container, name));
+      return entry == null ? null : new MutableBlobMetadataImpl(entry.metadata);
+   }
+
+   /**
+    * Caches a copy of the metadata of the given generation of an object under its name, unless a newer generation is
+    * already cached.
+    */
+   public void put(String container, BlobMetadata metadata, long generation) {
+      if (cache == null) {
+         return;
+      }
+      ConcurrentMap<String, Entry> entries = cache.asMap();
+      String key = key(container, metadata.getName());
+      Entry entry = new Entry(generation, new MutableBlobMetadataImpl(metadata));
+      while (true) {
+         Entry current = entries.putIfAbsent(key, entry);
+         // the same generation may carry newer metadata, such as a changed ACL
+         if (current == null || current.generation > generation || entries.replace(key, current, entry)) {
+            return;
+         }
+      }
+   }
+
+   public void invalidate(String container, String name) {
+      if (cache != null) {
+         cache.invalidate(key(container, name));
+      }
+   }
+
+   /** Drops the entries of every object whose name starts with the prefix, or of the whole bucket if it is null. */
+   public void invalidatePrefix(String container, @Nullable String prefix) {
+      if (cache == null) {
+         return;
+      }
+      String keyPrefix = key(container, prefix == null ? "" : prefix);
+      for (Map.Entry<String, Entry> entry : cache.asMap().entrySet()) {
+         if (entry.getKey().startsWith(keyPrefix)) {
+            cache.asMap().remove(entry.getKey(), entry.getValue());
+         }
+      }
+   }
+
+   /** Returns the hit, miss and eviction counts; all zero if the cache is disabled. */
+   public CacheStats stats() {
+      return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+   }
+
+   private static String key(String container, String name) {
+      // bucket names cannot contain '/'
+      return container + '/' + name;
+   }
+
+   private static int weight(String key, BlobMetadata metadata) {
+      long chars = key.length();
+      for (Map.Entry<String, String> entry : metadata.getUserMetadata().entrySet()) {
+         chars += entry.getKey().length() + entry.getValue().length();
+      }
+      chars += length(metadata.getETag()) + length(metadata.getContentMetadata().getContentType())
+            + length(metadata.getContentMetadata().getContentDisposition())
+            + length(metadata.getContentMetadata().getContentEncoding())
+            + length(metadata.getContentMetadata().getContentLanguage())
+            + (metadata.getUri() == null ? 0 : metadata.getUri().toString().length())
+            + (metadata.getPublicUri() == null ? 0 : metadata.getPublicUri().toString().length());
+      return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + 2 * chars);
+   }
+
+   private static int length(@Nullable String value) {
+      return value == null ? 0 : value.length();
+   }
+
+   private static final class Entry {
+      final long generation;
+      final BlobMetadata metadata;
+
+      Entry(long generation, BlobMetadata metadata) {
+         this.generation = generation;
+         this.metadata = metadata;
+      }
+   }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_FILTER_EXPECTED_NAMES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_TTL;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.options.ListObjectOptions;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Remembers objects that were found not to exist, so that repeated existence checks for them are answered without
+ * a request. Misses are kept for {@link
+ * org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#NEGATIVE_CACHE_TTL}; the cache is disabled
+ * when it is zero.
+ * <p>
+ * {@link #prime} additionally lists a prefix into a Bloom filter: while the filter is valid, any name under the prefix
+ * that the filter has definitely not seen is reported missing, without a prior miss. The filter is sized up front for
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#NEGATIVE_CACHE_FILTER_EXPECTED_NAMES}
+ * names, so a listing of any length is streamed into it without being held in memory. Objects written through this
+ * blobstore are added to every covering filter and drop their cached miss; objects created by other clients are seen
+ * once the entry or filter expires.
+ */
+@Singleton
+public final class NegativeLookupCache {
+
+   /** The false positive rate of prefix filters; a false positive only costs the request the filter would save. */
+   private static final double FILTER_FPP = 0.01;
+
+   private final GoogleCloudStorageApi api;
+   private final int expectedNames;
+   @Nullable private final Cache<String, Boolean> misses;
+   private final List<PrefixFilter> filters = new CopyOnWriteArrayList<PrefixFilter>();
+   private final List<PrefixFilter> priming = new CopyOnWriteArrayList<PrefixFilter>();
+
+   @Inject NegativeLookupCache(GoogleCloudStorageApi api, @Named(NEGATIVE_CACHE_TTL) long ttl,
+         @Named(NEGATIVE_CACHE_SIZE) long size, @Named(NEGATIVE_CACHE_FILTER_EXPECTED_NAMES) int expectedNames) {
+      checkArgument(ttl >= 0, "%s must not be negative", NEGATIVE_CACHE_TTL);
+      checkArgument(size > 0, "%s must be positive", NEGATIVE_CACHE_SIZE);
+      checkArgument(expectedNames > 0, "%s must be positive", NEGATIVE_CACHE_FILTER_EXPECTED_NAMES);
+      this.api = api;
+      this.expectedNames = expectedNames;
+      this.misses = ttl == 0 ? null : CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .maximumSize(size)
+            .recordStats()
+            .<String, Boolean> build();
+   }
+
+   /** Returns true if the object is known not to exist, from a recent miss or a prefix filter. */
+   public boolean isKnownMissing(String container, String name) {
+      if (misses != null && misses.getIfPresent(key(container, name)) != null) {
+         return true;
+      }
+      long now = System.nanoTime();
+      for (PrefixFilter filter : filters) {
+         if (filter.isExpired(now)) {
+            filters.remove(filter);
+         } else if (filter.covers(container, name) && !filter.mightContain(name)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   public void recordMissing(String container, String name) {
+      if (misses != null) {
+         misses.put(key(container, name), Boolean.TRUE);
+      }
+   }
+
+   /** Records that this blobstore has written the object, which must no longer be reported missing. */
+   public synchronized void recordWritten(String container, String name) {
+      if (misses != null) {
+         misses.invalidate(key(container, name));
+      }
+      for (PrefixFilter filter : filters) {
+         if (filter.covers(container, name)) {
+            filter.put(name);
+         }
+      }
+      for (PrefixFilter filter : priming) {
+         if (filter.covers(container, name)) {
+            filter.put(name);
+         }
+      }
+   }
+
+   /**
+    * Lists every object under the prefix into a Bloom filter that answers existence checks under the prefix until it
+    * expires. Writes made through this blobstore while the listing runs are included.
+    *
+    * @param prefix
+    *           unencoded name prefix, or null for the whole bucket
+    */
+   public void prime(String container, @Nullable String prefix, long validity, TimeUnit unit) {
+      PrefixFilter filter = new PrefixFilter(container, prefix == null ? "" : prefix,
+            System.nanoTime() + unit.toNanos(validity), expectedNames);
+      priming.add(filter);
+      try {
+         ListObjectOptions options = new ListObjectOptions().fields(ObjectField.REQUIRED);
+         if (prefix != null) {
+            options.prefix(prefix);
+         }
+         for (Iterator<GoogleCloudStorageObject> it = api.getObjectApi().listObjectsAll(container, options);
+               it.hasNext();) {
+            filter.put(it.next().name());
+         }
+         synchronized (this) {
+            filters.add(filter);
+         }
+      } finally {
+         priming.remove(filter);
+      }
+   }
+
+   /** Returns the hit and miss counts of recorded misses; all zero if they are not cached. */
+   public CacheStats stats() {
+      return misses == null ? new CacheStats(0, 0, 0, 0, 0, 0) : misses.stats();
+   }
+
+   private static String key(String container, String name) {
+      // bucket names cannot contain '/'
+      return container + '/' + name;
+   }
+
+   private static final class PrefixFilter {
+      private final String container;
+      private final String prefix;
+      private final long expiresAt;
+      private final BloomFilter<CharSequence> names;
+
+      PrefixFilter(String container, String prefix, long expiresAt, int expectedNames) {
+         this.container = container;
+         this.prefix = prefix;
+         this.expiresAt = expiresAt;
+         this.names = BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), expectedNames, FILTER_FPP);
+      }
+
+      boolean covers(String container, String name) {
+         return this.container.equals(container) && name.startsWith(prefix);
+      }
+
+      boolean isExpired(long now) {
+         return now - expiresAt >= 0;
+      }
+
+      synchronized void put(String name) {
+         names.put(name);
+      }
+
+      synchronized boolean mightContain(String name) {
+         return names.mightContain(name);
+      }
+   }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.COALESCE_BUFFER_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.COALESCE_READS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Deduplicates identical concurrent reads: while a metadata request or download for an object is in flight, other
+ * callers asking for the same object wait for it instead of sending their own request, and each receives its own
+ * copy of the result. Downloads are buffered for sharing when their length is at most
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#COALESCE_BUFFER_SIZE}; the first
+ * caller streams a larger object directly and the others download it themselves.
+ * <p>
+ * Only reads that overlap are coalesced, so results are never older than the request that produced them. A write
+ * through the blobstore {@linkplain #invalidate invalidates} the reads in flight for its object, so that a read
+ * starting after the write does not join a request sent before it.
+ */
+@Singleton
+public final class ReadCoalescer {
+
+   private final boolean enabled;
+   private final long bufferSize;
+   private final ConcurrentMap<String, ListenableFuture<BlobMetadata>> metadataInFlight =
+         new ConcurrentHashMap<String, ListenableFuture<BlobMetadata>>();
+   private final ConcurrentMap<String, ListenableFuture<SharedBlob>> downloadsInFlight =
+         new ConcurrentHashMap<String, ListenableFuture<SharedBlob>>();
+
+   @Inject ReadCoalescer(@Named(COALESCE_READS) boolean enabled, @Named(COALESCE_BUFFER_SIZE) long bufferSize) {
+      checkArgument(bufferSize >= 0, "%s must not be negative", COALESCE_BUFFER_SIZE);
+      this.enabled = enabled;
+      this.bufferSize = Math.min(bufferSize, Integer.MAX_VALUE - 8);
+   }
+
+   /**
+    * Returns the metadata loaded by {@code loader}, or by a concurrent call for the same object.
+    */
+   @Nullable
+   public BlobMetadata blobMetadata(String container, String name, Callable<BlobMetadata> loader) {
+      if (!enabled) {
+         return call(loader);
+      }
+      BlobMetadata metadata = coalesce(metadataInFlight, key(container, name), loader);
+      return metadata == null ? null : new MutableBlobMetadataImpl(metadata);
+   }
+
+   /**
+    * Returns the object downloaded by {@code loader}, or by a concurrent call for the same object. The loader must
+    * download the whole object.
+    */
+   @Nullable
+   public Blob getBlob(String container, String name, final Callable<Blob> loader) {
+      if (!enabled) {
+         return call(loader);
+      }
+      SharedBlob shared = coalesce(downloadsInFlight, key(container, name), new Callable<SharedBlob>() {
+         @Override
+         public SharedBlob call() throws IOException {
+            return share(ReadCoalescer.call(loader));
+         }
+      });
+      if (shared.metadata == null) {
+         return null;
+      } else if (shared.bytes != null) {
+         return toBlob(shared.metadata, Payloads.newByteArrayPayload(shared.bytes));
+      } else if (shared.taken.compareAndSet(false, true)) {
+         return shared.original;
+      } else {
+         // too large to buffer, and its stream went to another caller
+         return call(loader);
+      }
+   }
+
+   /** Stops later reads of the object from joining the requests in flight for it. */
+   public void invalidate(String container, String name) {
+      if (enabled) {
+         String key = key(container, name);
+         metadataInFlight.remove(key);
+         downloadsInFlight.remove(key);
+      }
+   }
+
+   /** Stops later reads of every object whose name starts with the prefix, or of the whole bucket if it is null. */
+   public void invalidatePrefix(String container, @Nullable String prefix) {
+      if (enabled) {
+         String keyPrefix = key(container, prefix == null ? "" : prefix);
+         invalidatePrefix(metadataInFlight, keyPrefix);
+         invalidatePrefix(downloadsInFlight, keyPrefix);
+      }
+   }
+
+   private static void invalidatePrefix(ConcurrentMap<String, ?> inFlight, String keyPrefix) {
+      for (String key : inFlight.keySet()) {
+         if (key.startsWith(keyPrefix)) {
+            inFlight.remove(key);
+         }
+      }
+   }
+
+   private SharedBlob share(@Nullable Blob blob) throws IOException {
+      if (blob == null) {
+         return new SharedBlob(null, null, null);
+      }
+      Long length = blob.getMetadata().getContentMetadata().getContentLength();
+      if (blob.getPayload() == null || length == null || length > bufferSize) {
+         return new SharedBlob(blob.getMetadata(), null, blob);
+      }
+      InputStream is = blob.getPayload().openStream();
+      try {
+         return new SharedBlob(blob.getMetadata(), ByteStreams.toByteArray(is), null);
+      } finally {
+         Closeables.closeQuietly(is);
+      }
+   }
+
+   private static Blob toBlob(BlobMetadata shared, Payload payload) {
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(shared);
+      Blob blob = new BlobImpl(metadata);
+      payload.setContentMetadata(metadata.getContentMetadata()); // Doing this first retains it on setPayload.
+      blob.setPayload(payload);
+      return blob;
+   }
+
+   private static <V> V coalesce(ConcurrentMap<String, ListenableFuture<V>> inFlight, String key,
+         Callable<V> loader) {
+      SettableFuture<V> flight = SettableFuture.create();
+      ListenableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+      if (existing != null) {
+         try {
+            return Uninterruptibles.getUninterruptibly(existing);
+         } catch (ExecutionException ee) {
+            throw Throwables.propagate(ee.getCause());
+         }
+      }
+      try {
+         V value = call(loader);
+         flight.set(value);
+         return value;
+      } catch (RuntimeException re) {
+         flight.setException(re);
+         throw re;
+      } catch (Error e) {
+         flight.setException(e);
+         throw e;
+      } finally {
+         inFlight.remove(key, flight);
+      }
+   }
+
+   private static <V> V call(Callable<V> loader) {
+      try {
+         return loader.call();
+      } catch (Exception e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private static String key(String container, String name) {
+      // bucket names cannot contain '/'
+      return container + '/' + name;
+   }
+
+   /** The outcome of one download: absent, buffered, or a single stream for the first caller to take it. */
+   private static final class SharedBlob {
+      @Nullable private final BlobMetadata metadata;
+      @Nullable private final byte[] bytes;
+      @Nullable private final Blob original;
+      private final AtomicBoolean taken = new AtomicBoolean();
+
+      SharedBlob(@Nullable BlobMetadata metadata, @Nullable byte[] bytes, @Nullable Blob original) {
+         this.metadata = metadata;
+         this.bytes = bytes;
+         this.original = original;
+      }
+   }
+}
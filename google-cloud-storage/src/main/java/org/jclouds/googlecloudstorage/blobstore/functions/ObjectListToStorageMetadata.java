@@ -16,7 +16,11 @@
  */
 package org.jclouds.googlecloudstorage.blobstore.functions;
 
-import java.util.SortedSet;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 
 import javax.inject.Inject;
 
@@ -25,16 +29,48 @@ import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
-import org.jclouds.blobstore.domain.internal.PageSetImpl;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
 import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.javax.annotation.Nullable;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 
+/**
+ * Converts a page of objects and prefixes to a {@link PageSet} in name order. The service already returns both
+ * lists sorted, so they are merged in a single pass into an array instead of being re-sorted; entries with the name
+ * of an earlier entry are dropped, as a sorted set would.
+ */
 public class ObjectListToStorageMetadata
       implements Function<ListPageWithPrefixes<GoogleCloudStorageObject>, PageSet<? extends StorageMetadata>> {
+
+   /** Orders names as the service does, by their UTF-8 bytes, which is the same as by code points. */
+   public static final Comparator<String> NAME_ORDER = new Comparator<String>() {
+      @Override
+      public int compare(String a, String b) {
+         int i = 0;
+         int j = 0;
+         while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+               return ca < cb ? -1 : 1;
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+         }
+         return i < a.length() ? 1 : j < b.length() ? -1 : 0;
+      }
+   };
+
+   private static final Comparator<StorageMetadata> METADATA_ORDER = new Comparator<StorageMetadata>() {
+      @Override
+      public int compare(StorageMetadata left, StorageMetadata right) {
+         return NAME_ORDER.compare(left.getName(), right.getName());
+      }
+   };
+
    private final ObjectToBlobMetadata object2blobMd;
 
    @Inject public ObjectListToStorageMetadata(ObjectToBlobMetadata object2blobMd) {
@@ -45,14 +81,76 @@ public class ObjectListToStorageMetadata
       if (from == null) {
          from = ListPageWithPrefixes.create(null, null, null);
       }
+      return apply(Lists.transform(from, object2blobMd), from.prefixes(), from.nextPageToken());
+   }
+
+   /**
+    * Combines the already mapped objects of a listing with its prefixes, which become
+    * {@link StorageType#RELATIVE_PATH} entries. Either list is sorted first only if it is out of order.
+    */
+   public PageSet<? extends StorageMetadata> apply(List<? extends StorageMetadata> objects, List<String> prefixes,
+         @Nullable String nextPageToken) {
+      StorageMetadata[] items = objects.toArray(new StorageMetadata[objects.size()]);
+      StorageMetadata[] folders = new StorageMetadata[prefixes.size()];
+      for (int i = 0; i < folders.length; i++) {
+         MutableStorageMetadata metadata = new MutableStorageMetadataImpl();
+         metadata.setType(StorageType.RELATIVE_PATH);
+         metadata.setName(prefixes.get(i));
+         folders[i] = metadata;
+      }
+      sortIfNeeded(items);
+      sortIfNeeded(folders);
+
+      StorageMetadata[] merged = new StorageMetadata[items.length + folders.length];
+      int size = 0;
+      int i = 0;
+      int j = 0;
+      while (i < items.length || j < folders.length) {
+         StorageMetadata next;
+         if (j == folders.length || (i < items.length && METADATA_ORDER.compare(items[i], folders[j]) <= 0)) {
+            next = items[i++];
+         } else {
+            next = folders[j++];
+         }
+         if (size == 0 || METADATA_ORDER.compare(merged[size - 1], next) != 0) {
+            merged[size++] = next;
+         }
+      }
+      return new ArrayPageSet(size == merged.length ? merged : Arrays.copyOf(merged, size), nextPageToken);
+   }
+
+   private static void sortIfNeeded(StorageMetadata[] entries) {
+      for (int i = 1; i < entries.length; i++) {
+         if (METADATA_ORDER.compare(entries[i - 1], entries[i]) > 0) {
+            Arrays.sort(entries, METADATA_ORDER);
+            return;
+         }
+      }
+   }
+
+   /** An immutable page whose entries are distinct by name and held in name order. */
+   private static final class ArrayPageSet extends AbstractSet<StorageMetadata> implements PageSet<StorageMetadata> {
+      private final StorageMetadata[] entries;
+      private final String nextMarker;
+
+      ArrayPageSet(StorageMetadata[] entries, @Nullable String nextMarker) {
+         this.entries = entries;
+         this.nextMarker = nextMarker;
+      }
+
+      @Override
+      public Iterator<StorageMetadata> iterator() {
+         return Iterators.forArray(entries);
+      }
+
+      @Override
+      public int size() {
+         return entries.length;
+      }
 
-      SortedSet<StorageMetadata> results = Sets.<StorageMetadata> newTreeSet(Iterables.transform(from, object2blobMd));
-      for (String prefix : from.prefixes()) {
-          MutableStorageMetadata metadata = new MutableStorageMetadataImpl();
-          metadata.setType(StorageType.RELATIVE_PATH);
-          metadata.setName(prefix);
-          results.add(metadata);
+      @Override
+      public String getNextMarker() {
+         return nextMarker;
       }
-      return new PageSetImpl<StorageMetadata>(results, from.nextPageToken());
    }
 }
@@ -16,19 +16,43 @@
  */
 package org.jclouds.googlecloudstorage.blobstore.functions;
 
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.BUCKET;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.CONTENT_DISPOSITION;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.CONTENT_ENCODING;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.CONTENT_LANGUAGE;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.CONTENT_TYPE;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.ETAG;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.ID;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.MD5_HASH;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.MEDIA_LINK;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.METADATA;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.NAME;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.SELF_LINK;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.SIZE;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField.UPDATED;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
 import org.jclouds.javax.annotation.Nullable;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
 import com.google.common.io.BaseEncoding;
 
 public class ObjectToBlobMetadata implements Function<GoogleCloudStorageObject, MutableBlobMetadata> {
 
+   /** The object fields this function reads; objects with fewer fields map to incomplete metadata. */
+   public static final Set<ObjectField> FIELDS = Sets.immutableEnumSet(ID, SELF_LINK, ETAG, NAME, BUCKET, CONTENT_TYPE,
+         UPDATED, SIZE, MD5_HASH, MEDIA_LINK, METADATA, CONTENT_ENCODING, CONTENT_DISPOSITION, CONTENT_LANGUAGE);
+
    public MutableBlobMetadata apply(GoogleCloudStorageObject from) {
       if (from == null) {
          return null;
@@ -42,7 +66,7 @@ public class ObjectToBlobMetadata implements Function<GoogleCloudStorageObject,
       to.getContentMetadata().setContentLength(from.size());
       to.setLastModified(from.updated());
       to.setContainer(from.bucket());
-      to.setUserMetadata(from.metadata());
+      to.setUserMetadata(toUserMetadata(from.metadata()));
       to.setETag(from.etag());
       to.setName(from.name());
       to.setUri(from.selfLink());
@@ -53,6 +77,20 @@ public class ObjectToBlobMetadata implements Function<GoogleCloudStorageObject,
       return to;
    }
 
+   /**
+    * Lowercases the user-metadata keys, as {@link org.jclouds.googlecloudstorage.parser.ParseToBlob} must for the
+    * {@code x-goog-meta-*} headers, so that a blob and its metadata report the same keys.
+    */
+   static Map<String, String> toUserMetadata(@Nullable Map<String, String> metadata) {
+      Map<String, String> userMetadata = new LinkedHashMap<String, String>();
+      if (metadata != null) {
+         for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            userMetadata.put(entry.getKey().toLowerCase(), entry.getValue());
+         }
+      }
+      return userMetadata;
+   }
+
    private static HashCode toHashCode(@Nullable String hashCode) {
       return hashCode == null ? null : HashCode.fromBytes(BaseEncoding.base64().decode(hashCode));
    }
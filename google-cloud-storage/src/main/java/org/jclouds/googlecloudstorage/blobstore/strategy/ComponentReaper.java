@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.DELETE_COMPONENTS_SYNCHRONOUSLY;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.googlecloudstorage.features.BatchApi;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Deletes the component objects left behind by a compose: multipart upload parts and intermediate compose objects.
+ * Deletes are grouped into batch requests and run on a small bounded pool, so that completing an upload does not
+ * wait for them; when the queue is full the caller runs the batch itself. Failures are logged, not thrown, because the
+ * composed object is already complete.
+ */
+@Singleton
+public final class ComponentReaper {
+
+   private static final int THREADS = 2;
+   private static final int QUEUED_BATCHES = 1000;
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final DeleteObjectsStrategy deleteObjectsStrategy;
+   private final boolean synchronous;
+   private final ExecutorService executor;
+
+   @Inject ComponentReaper(DeleteObjectsStrategy deleteObjectsStrategy,
+         @Named(DELETE_COMPONENTS_SYNCHRONOUSLY) boolean synchronous, Closer closer) {
+      this.deleteObjectsStrategy = deleteObjectsStrategy;
+      this.synchronous = synchronous;
+      final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(QUEUED_BATCHES),
+            new ThreadFactoryBuilder().setNameFormat("gcs-component-reaper-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+      executor.allowCoreThreadTimeOut(true);
+      closer.addToClose(new Closeable() {
+         @Override
+         public void close() {
+            executor.shutdown();
+         }
+      });
+      this.executor = executor;
+   }
+
+   /**
+    * Deletes the named objects, in the background unless
+    * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#DELETE_COMPONENTS_SYNCHRONOUSLY} is
+    * set.
+    *
+    * @param container
+    *           bucket holding the objects
+    * @param names
+    *           unencoded object names
+    */
+   public void reap(String container, Iterable<String> names) {
+      for (List<String> batch : Iterables.partition(ImmutableList.copyOf(names), BatchApi.MAX_BATCH_SIZE)) {
+         Runnable task = new DeleteBatch(container, batch);
+         if (synchronous) {
+            task.run();
+         } else {
+            executor.execute(task);
+         }
+      }
+   }
+
+   private final class DeleteBatch implements Runnable {
+      private final String container;
+      private final List<String> names;
+
+      DeleteBatch(String container, List<String> names) {
+         this.container = container;
+         this.names = names;
+      }
+
+      @Override
+      public void run() {
+         try {
+            for (Map.Entry<String, Integer> failure : deleteObjectsStrategy.execute(container, names).entrySet()) {
+               logger.warn("could not delete component %s/%s: status %s", container, failure.getKey(),
+                     failure.getValue());
+            }
+         } catch (RuntimeException e) {
+            logger.warn(e, "could not delete %s components in %s", names.size(), container);
+         }
+      }
+   }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate.SourceObject;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+import org.jclouds.googlecloudstorage.handlers.AdaptiveConcurrencyLimiter;
+import org.jclouds.util.Strings2;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Composes any number of source objects into one destination object. A single compose request accepts at most
+ * {@value #MAX_COMPONENTS} sources, so larger inputs are composed level by level: each level composes groups of
+ * sources into intermediate objects in parallel, until few enough remain for the final compose. Every source is
+ * guarded by an {@code ifGenerationMatch} precondition, and the intermediate objects are handed to the
+ * {@link ComponentReaper} afterwards.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/composite-objects"/>
+ */
+@Singleton
+public final class ComposeTreeStrategy {
+
+   /** The maximum number of source objects in a single compose request. */
+   public static final int MAX_COMPONENTS = 32;
+
+   private final GoogleCloudStorageApi api;
+   private final ListeningExecutorService userExecutor;
+   private final ComponentReaper componentReaper;
+   private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+   @Inject ComposeTreeStrategy(GoogleCloudStorageApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         ComponentReaper componentReaper, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+      this.api = api;
+      this.userExecutor = userExecutor;
+      this.componentReaper = componentReaper;
+      this.concurrencyLimiter = concurrencyLimiter;
+   }
+
+   /**
+    * @param container
+    *           bucket holding the sources and the destination
+    * @param intermediatePrefix
+    *           unencoded prefix for the names of intermediate objects
+    * @param sources
+    *           the source objects, in order
+    * @param destination
+    *           template for the destination object; its name must be set
+    * @return the composed destination object
+    */
+   public GoogleCloudStorageObject execute(String container, String intermediatePrefix, List<SourceObject> sources,
+         ObjectTemplate destination) {
+      checkArgument(!sources.isEmpty(), "no source objects to compose");
+      ImmutableList.Builder<String> intermediates = ImmutableList.builder();
+      try {
+         int level = 0;
+         while (sources.size() > MAX_COMPONENTS) {
+            List<ListenableFuture<GoogleCloudStorageObject>> futures = Lists.newArrayList();
+            SourceObject leftover = null;
+            int index = 0;
+            for (List<SourceObject> group : Lists.partition(sources, MAX_COMPONENTS)) {
+               if (group.size() == 1) {
+                  // only the last group can be this small; composing it alone would just copy it
+                  leftover = group.get(0);
+                  break;
+               }
+               String name = String.format("%s.compose-%d-%05d", intermediatePrefix, level, index++);
+               intermediates.add(name);
+               futures.add(compose(container, group, new ObjectTemplate().name(name)
+                     .contentType(destination.contentType())));
+            }
+            ImmutableList.Builder<SourceObject> next = ImmutableList.builder();
+            for (GoogleCloudStorageObject composed : getAll(futures)) {
+               next.add(SourceObject.createWithPrecondition(composed.name(), composed.generation(),
+                     composed.generation()));
+            }
+            if (leftover != null) {
+               next.add(leftover);
+            }
+            sources = next.build();
+            level++;
+         }
+         return api.getObjectApi().composeObjects(container, Strings2.urlEncode(destination.name()),
+               ComposeObjectTemplate.create(sources, destination));
+      } finally {
+         componentReaper.reap(container, intermediates.build());
+      }
+   }
+
+   private ListenableFuture<GoogleCloudStorageObject> compose(final String container, final List<SourceObject> group,
+         final ObjectTemplate destination) {
+      return userExecutor.submit(new Callable<GoogleCloudStorageObject>() {
+         @Override
+         public GoogleCloudStorageObject call() throws InterruptedException {
+            concurrencyLimiter.acquire(container);
+            try {
+               return api.getObjectApi().composeObjects(container, Strings2.urlEncode(destination.name()),
+                     ComposeObjectTemplate.create(ImmutableList.copyOf(group), destination));
+            } finally {
+               concurrencyLimiter.release(container);
+            }
+         }
+      });
+   }
+
+   private static <T> List<T> getAll(List<ListenableFuture<T>> futures) {
+      try {
+         return Futures.allAsList(futures).get();
+      } catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(ie);
+      } catch (ExecutionException ee) {
+         throw Throwables.propagate(ee.getCause());
+      } finally {
+         for (ListenableFuture<T> future : futures) {
+            future.cancel(true);
+         }
+      }
+   }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.BatchRequest;
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
+import org.jclouds.googlecloudstorage.features.BatchApi;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+/**
+ * Deletes objects through the {@link BatchApi}, {@value BatchApi#MAX_BATCH_SIZE} per request. Objects that are
+ * already gone count as deleted. Deletes answered with 429 or 5xx are sent again in a smaller batch, with the same
+ * exponential backoff and full jitter as retried requests. Every delete in a batch, including those sent again,
+ * first waits for its turn from the {@link WriteRateLimiter}. An interrupt stops the deletes: no further batch is
+ * sent and the interrupt is rethrown.
+ */
+@Singleton
+public final class DeleteObjectsStrategy {
+
+   /** The longest backoff between attempts, as recommended by the retry strategy. */
+   private static final long MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(32);
+
+   private final GoogleCloudStorageApi api;
+   private final WriteRateLimiter writeRateLimiter;
+   private final int maxRetries;
+   private final long delayStart;
+   private final Random random = new Random();
+
+   @Inject DeleteObjectsStrategy(GoogleCloudStorageApi api, WriteRateLimiter writeRateLimiter,
+         @Named(Constants.PROPERTY_MAX_RETRIES) int maxRetries,
+         @Named(Constants.PROPERTY_RETRY_DELAY_START) long delayStart) {
+      this.api = api;
+      this.writeRateLimiter = writeRateLimiter;
+      this.maxRetries = maxRetries;
+      this.delayStart = delayStart;
+   }
+
+   /**
+    * @param container
+    *           bucket holding the objects
+    * @param names
+    *           unencoded object names; consumed lazily, one batch at a time
+    * @return the status code of every object that could not be deleted, by name
+    */
+   public Map<String, Integer> execute(String container, Iterable<String> names) {
+      Map<String, Integer> failures = Maps.newLinkedHashMap();
+      for (List<String> batch : Iterables.partition(names, BatchApi.MAX_BATCH_SIZE)) {
+         for (int attempt = 1; !batch.isEmpty(); attempt++) {
+            List<BatchResponse> responses = delete(container, batch);
+            Map<String, Integer> retries = Maps.newLinkedHashMap();
+            for (int i = 0; i < batch.size(); i++) {
+               int status = responses.get(i).statusCode();
+               if (responses.get(i).isSuccessful() || status == 404) {
+                  continue;
+               } else if ((status == 429 || status >= 500) && attempt <= maxRetries) {
+                  retries.put(batch.get(i), status);
+               } else {
+                  failures.put(batch.get(i), status);
+               }
+            }
+            if (!retries.isEmpty()) {
+               sleep(backoff(attempt));
+            }
+            batch = ImmutableList.copyOf(retries.keySet());
+         }
+      }
+      return failures;
+   }
+
+   private List<BatchResponse> delete(String container, List<String> names) {
+      if (writeRateLimiter.isEnabled()) {
+         try {
+            writeRateLimiter.acquire(container, names);
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ie);
+         }
+      }
+      ImmutableList.Builder<BatchRequest> requests = ImmutableList.builder();
+      for (String name : names) {
+         requests.add(BatchRequest.deleteObject(container, name));
+      }
+      List<BatchResponse> responses = api.getBatchApi().execute(requests.build());
+      checkState(responses.size() == names.size(), "expected %s batch responses, got %s", names.size(),
+            responses.size());
+      return responses;
+   }
+
+   /** Returns a random delay of up to {@code delayStart * 2^(attempt - 1)} milliseconds, capped. */
+   private long backoff(int attempt) {
+      long ceiling = delayStart << Math.min(attempt - 1, 30);
+      if (ceiling <= 0 || ceiling > MAX_DELAY_MILLIS) {
+         ceiling = MAX_DELAY_MILLIS;
+      }
+      return (long) (random.nextDouble() * ceiling);
+   }
+
+   /** Sleeps, stopping the deletes with the interrupt rather than sending any further batch. */
+   private static void sleep(long millis) {
+      try {
+         Thread.sleep(millis);
+      } catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(ie);
+      }
+   }
+}
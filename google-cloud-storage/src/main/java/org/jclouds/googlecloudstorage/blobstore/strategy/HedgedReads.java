@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.HEDGE_READS_BUDGET;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.HEDGE_READS_PERCENTILE;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloudstorage.metrics.LatencyHistogram;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Hedges idempotent reads: when a read has not completed within the
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#HEDGE_READS_PERCENTILE} latency of
+ * recent reads, the same read is sent again and whichever completes first is returned; the other is left to complete
+ * and its payload, if any, released then. The extra requests are capped by
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#HEDGE_READS_BUDGET}, a fraction of all
+ * reads, so that a slow service is not answered with twice the load.
+ * <p>
+ * Reads run on an executor of their own while the caller waits, rather than on the user executor, so that a caller
+ * on a user thread never waits for reads queued behind it. No read is hedged until enough latencies have been
+ * recorded to estimate the percentile.
+ */
+@Singleton
+public final class HedgedReads {
+
+   /** Reads recorded before the first hedge. */
+   static final int MIN_SAMPLES = 100;
+   /** Reads after which the recorded latencies are halved, so that the delay follows recent latency. */
+   static final int DECAY_INTERVAL = 10000;
+   /** Budget credits are counted in thousandths of a hedge, and at most this many hedges are saved up. */
+   private static final long CREDITS_PER_HEDGE = 1000;
+   private static final long MAX_CREDITS = 10 * CREDITS_PER_HEDGE;
+
+   private final ListeningExecutorService executor;
+   private final double percentile;
+   private final long creditsPerRead;
+   private final LatencyHistogram latencies = new LatencyHistogram();
+   private final AtomicInteger reads = new AtomicInteger();
+   private final AtomicLong credits = new AtomicLong();
+   private final AtomicLong hedges = new AtomicLong();
+
+   @Inject HedgedReads(Closer closer, @Named(HEDGE_READS_PERCENTILE) double percentile,
+         @Named(HEDGE_READS_BUDGET) double budget) {
+      this(newReadExecutor(closer), percentile, budget);
+   }
+
+   @VisibleForTesting
+   HedgedReads(ListeningExecutorService executor, double percentile, double budget) {
+      checkArgument(percentile >= 0 && percentile < 1, "%s must be at least 0 and less than 1",
+            HEDGE_READS_PERCENTILE);
+      checkArgument(budget >= 0 && budget <= 1, "%s must be between 0 and 1", HEDGE_READS_BUDGET);
+      this.executor = executor;
+      this.percentile = percentile;
+      this.creditsPerRead = (long) (budget * CREDITS_PER_HEDGE);
+   }
+
+   public boolean isEnabled() {
+      return percentile > 0;
+   }
+
+   /** Returns the number of hedge requests sent. */
+   public long getHedgeCount() {
+      return hedges.get();
+   }
+
+   /** Runs the read, hedging it if it is slow; it must be safe to run the read twice concurrently. */
+   public <T> T call(Callable<T> read) {
+      if (!isEnabled()) {
+         try {
+            return read.call();
+         } catch (Exception e) {
+            throw Throwables.propagate(e);
+         }
+      }
+      addCredit();
+      ListenableFuture<T> pending = submit(read);
+      try {
+         long delay = hedgeDelayMicros();
+         if (delay == 0) {
+            return pending.get();
+         }
+         try {
+            return pending.get(delay, TimeUnit.MICROSECONDS);
+         } catch (TimeoutException slow) {
+            if (!takeCredit()) {
+               return pending.get();
+            }
+            hedges.incrementAndGet();
+            pending = firstSuccessful(pending, submit(read));
+            return pending.get();
+         }
+      } catch (InterruptedException ie) {
+         // the reads still complete; a hedged read releases its loser itself, and the winner is released here
+         releaseWhenDone(pending);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(ie);
+      } catch (ExecutionException ee) {
+         throw Throwables.propagate(ee.getCause());
+      }
+   }
+
+   private <T> ListenableFuture<T> submit(final Callable<T> read) {
+      return executor.submit(new Callable<T>() {
+         @Override
+         public T call() throws Exception {
+            long start = System.nanoTime();
+            T result = read.call();
+            latencies.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (reads.incrementAndGet() % DECAY_INTERVAL == 0) {
+               latencies.decay();
+            }
+            return result;
+         }
+      });
+   }
+
+   /**
+    * Completes with the first successful result, or the last failure. The loser is not cancelled, which would drop
+    * its result unreleased, but released once it completes.
+    */
+   private static <T> ListenableFuture<T> firstSuccessful(final ListenableFuture<T> first,
+         final ListenableFuture<T> second) {
+      final SettableFuture<T> winner = SettableFuture.create();
+      final AtomicInteger failures = new AtomicInteger();
+      FutureCallback<T> callback = new FutureCallback<T>() {
+         @Override
+         public void onSuccess(T result) {
+            if (!winner.set(result)) {
+               release(result);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            if (failures.incrementAndGet() == 2) {
+               winner.setException(t);
+            }
+         }
+      };
+      Futures.addCallback(first, callback);
+      Futures.addCallback(second, callback);
+      return winner;
+   }
+
+   private static <T> void releaseWhenDone(ListenableFuture<T> read) {
+      Futures.addCallback(read, new FutureCallback<T>() {
+         @Override
+         public void onSuccess(T result) {
+            release(result);
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+         }
+      });
+   }
+
+   private static void release(Object result) {
+      if (result instanceof PayloadEnclosing && ((PayloadEnclosing) result).getPayload() != null) {
+         ((PayloadEnclosing) result).getPayload().release();
+      }
+   }
+
+   private static ListeningExecutorService newReadExecutor(Closer closer) {
+      // unbounded, as each caller waits for at most two reads at a time
+      final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("gcs-hedged-read-%d").setDaemon(true).build());
+      closer.addToClose(new Closeable() {
+         @Override
+         public void close() {
+            executor.shutdown();
+         }
+      });
+      return MoreExecutors.listeningDecorator(executor);
+   }
+
+   private long hedgeDelayMicros() {
+      if (latencies.count() < MIN_SAMPLES) {
+         return 0;
+      }
+      return Math.max(1, latencies.percentile(percentile));
+   }
+
+   private void addCredit() {
+      while (true) {
+         long current = credits.get();
+         long next = Math.min(MAX_CREDITS, current + creditsPerRead);
+         if (next == current || credits.compareAndSet(current, next)) {
+            return;
+         }
+      }
+   }
+
+   private boolean takeCredit() {
+      while (true) {
+         long current = credits.get();
+         if (current < CREDITS_PER_HEDGE) {
+            return false;
+         }
+         if (credits.compareAndSet(current, current - CREDITS_PER_HEDGE)) {
+            return true;
+         }
+      }
+   }
+}
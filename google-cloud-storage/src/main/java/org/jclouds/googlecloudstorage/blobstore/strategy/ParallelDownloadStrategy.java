@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.io.BaseEncoding.base64;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.PARALLEL_DOWNLOAD_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.PARALLEL_DOWNLOAD_PART_SIZE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.handlers.AdaptiveConcurrencyLimiter;
+import org.jclouds.googlecloudstorage.options.GetObjectOptions;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.jclouds.util.Strings2;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Downloads an object into a local file by fetching byte ranges concurrently. Every range is pinned to the
+ * generation observed when the download started, so a concurrent overwrite fails the download instead of producing
+ * a file stitched together from two versions. The result is verified against the object's crc32c or md5 hash.
+ * <p>
+ * At most {@value org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#PARALLEL_DOWNLOAD_PARALLELISM}
+ * ranges are in flight at once. On any failure, including an interrupt, no further range is started and the ranges
+ * already downloading are waited for before the file is closed and deleted.
+ */
+@Singleton
+public final class ParallelDownloadStrategy {
+
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   private final GoogleCloudStorageApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long partSize;
+   private final int parallelism;
+   private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+   @Inject ParallelDownloadStrategy(GoogleCloudStorageApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PARALLEL_DOWNLOAD_PART_SIZE) long partSize, @Named(PARALLEL_DOWNLOAD_PARALLELISM) int parallelism,
+         AdaptiveConcurrencyLimiter concurrencyLimiter) {
+      checkArgument(partSize > 0, "%s must be positive", PARALLEL_DOWNLOAD_PART_SIZE);
+      checkArgument(parallelism > 0, "%s must be positive", PARALLEL_DOWNLOAD_PARALLELISM);
+      this.api = api;
+      this.userExecutor = userExecutor;
+      this.partSize = partSize;
+      this.parallelism = parallelism;
+      this.concurrencyLimiter = concurrencyLimiter;
+   }
+
+   public void execute(String container, String name, Path destination) {
+      final String encodedName = Strings2.urlEncode(name);
+      GoogleCloudStorageObject object = api.getObjectApi().getObject(container, encodedName);
+      if (object == null) {
+         throw new ResourceNotFoundException(String.format("%s/%s not found", container, name));
+      }
+
+      FileChannel channel = null;
+      List<ListenableFuture<Void>> ranges = Lists.newArrayList();
+      AtomicBoolean failed = new AtomicBoolean();
+      try {
+         channel = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+               StandardOpenOption.TRUNCATE_EXISTING);
+         Semaphore inFlight = new Semaphore(parallelism);
+         for (long offset = 0; offset < object.size(); offset += partSize) {
+            inFlight.acquire();
+            if (failed.get()) {
+               // a range failed; allAsList reports its exception
+               inFlight.release();
+               break;
+            }
+            long last = Math.min(offset + partSize, object.size()) - 1;
+            ranges.add(submitRange(new RangeDownload(container, encodedName, object.generation(), offset, last,
+                  channel, failed), inFlight, failed));
+         }
+         Futures.allAsList(ranges).get();
+         channel.force(false);
+         channel.close();
+         verify(object, destination);
+      } catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+         abort(ranges, failed, channel, destination);
+         throw Throwables.propagate(ie);
+      } catch (ExecutionException ee) {
+         abort(ranges, failed, channel, destination);
+         throw Throwables.propagate(ee.getCause());
+      } catch (IOException ioe) {
+         abort(ranges, failed, channel, destination);
+         throw Throwables.propagate(ioe);
+      } catch (RuntimeException re) {
+         abort(ranges, failed, channel, destination);
+         throw re;
+      } finally {
+         closeQuietly(channel);
+      }
+   }
+
+   /**
+    * Downloads a range unless another range has already failed. A failure is flagged before the range's permit is
+    * released, so the submitting loop sees it on its next acquire.
+    */
+   private ListenableFuture<Void> submitRange(final RangeDownload range, final Semaphore inFlight,
+         final AtomicBoolean failed) {
+      try {
+         return userExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException, InterruptedException {
+               try {
+                  if (!failed.get()) {
+                     range.call();
+                  }
+                  return null;
+               } catch (IOException ioe) {
+                  failed.set(true);
+                  throw ioe;
+               } catch (InterruptedException ie) {
+                  failed.set(true);
+                  throw ie;
+               } catch (RuntimeException re) {
+                  failed.set(true);
+                  throw re;
+               } finally {
+                  inFlight.release();
+               }
+            }
+         });
+      } catch (RuntimeException re) {
+         failed.set(true);
+         inFlight.release();
+         throw re;
+      }
+   }
+
+   /**
+    * Stops the ranges that have not started, waits for those already downloading and then closes and deletes the
+    * file. Cancelling the futures instead would mark them done while their range could still be writing.
+    */
+   private static void abort(List<ListenableFuture<Void>> ranges, AtomicBoolean failed, FileChannel channel,
+         Path destination) {
+      failed.set(true);
+      try {
+         Uninterruptibles.getUninterruptibly(Futures.successfulAsList(ranges));
+      } catch (ExecutionException impossible) {
+         // successfulAsList never fails
+      }
+      closeQuietly(channel);
+      deleteQuietly(destination);
+   }
+
+   private static void verify(GoogleCloudStorageObject object, Path destination) throws IOException {
+      if (object.crc32c() != null) {
+         // GCS encodes crc32c in big-endian byte order
+         HashCode actual = hash(destination, Hashing.crc32c());
+         checkHash(object, destination, object.crc32c(), base64().encode(Ints.toByteArray(actual.asInt())));
+      } else if (object.md5Hash() != null) {
+         HashCode actual = hash(destination, Hashing.md5());
+         checkHash(object, destination, object.md5Hash(), base64().encode(actual.asBytes()));
+      }
+   }
+
+   private static void checkHash(GoogleCloudStorageObject object, Path destination, String expected, String actual) {
+      if (!expected.equals(actual)) {
+         throw new IllegalStateException(String.format("hash mismatch downloading %s/%s to %s: expected %s, was %s",
+               object.bucket(), object.name(), destination, expected, actual));
+      }
+   }
+
+   private static HashCode hash(Path path, HashFunction function) throws IOException {
+      return com.google.common.io.Files.asByteSource(path.toFile()).hash(function);
+   }
+
+   private static void closeQuietly(FileChannel channel) {
+      try {
+         Closeables.close(channel, true);
+      } catch (IOException impossible) {
+      }
+   }
+
+   private static void deleteQuietly(Path path) {
+      try {
+         Files.deleteIfExists(path);
+      } catch (IOException ignored) {
+      }
+   }
+
+   private final class RangeDownload implements Callable<Void> {
+      private final String container;
+      private final String encodedName;
+      private final long generation;
+      private final long first;
+      private final long last;
+      private final FileChannel channel;
+      private final AtomicBoolean failed;
+
+      RangeDownload(String container, String encodedName, long generation, long first, long last,
+            FileChannel channel, AtomicBoolean failed) {
+         this.container = container;
+         this.encodedName = encodedName;
+         this.generation = generation;
+         this.first = first;
+         this.last = last;
+         this.channel = channel;
+         this.failed = failed;
+      }
+
+      @Override
+      public Void call() throws IOException, InterruptedException {
+         concurrencyLimiter.acquire(container);
+         try {
+            download();
+         } finally {
+            concurrencyLimiter.release(container);
+         }
+         return null;
+      }
+
+      private void download() throws IOException {
+         GetObjectOptions options = new GetObjectOptions().ifGenerationMatch(generation);
+         options.range(first, last);
+         PayloadEnclosing range = api.getObjectApi().download(container, encodedName, options);
+         if (range == null) {
+            throw new ResourceNotFoundException(String.format("%s/%s removed during download", container,
+                  Strings2.urlDecode(encodedName)));
+         }
+         InputStream is = range.getPayload().openStream();
+         try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long position = first;
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+               if (failed.get()) {
+                  // another range failed and the file is about to be deleted
+                  return;
+               }
+               ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+               while (bytes.hasRemaining()) {
+                  position += channel.write(bytes, position);
+               }
+            }
+            if (position != last + 1) {
+               throw new IOException(String.format("short read for range %d-%d of %s/%s: got %d bytes", first, last,
+                     container, Strings2.urlDecode(encodedName), position - first));
+            }
+         } finally {
+            Closeables.closeQuietly(is);
+         }
+      }
+   }
+}
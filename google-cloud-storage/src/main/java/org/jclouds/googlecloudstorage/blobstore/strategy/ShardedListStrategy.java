@@ -0,0 +1,428 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.LIST_PARALLELISM;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.blobstore.functions.ObjectListToStorageMetadata;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.googlecloudstorage.options.ListObjectOptions;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Lists a large bucket with several cursors at once. The keyspace is split into shards at the delimiter-derived
+ * prefixes below the requested prefix: one recursive listing per prefix, plus one delimited listing for the objects
+ * directly under the prefix. The delimited listing also finds the prefixes, so shards start as soon as its pages
+ * name them, and its first page, fetched to choose where to split, is not listed again. At most
+ * {@code LIST_PARALLELISM} shards are listed concurrently, and each buffers a bounded number of objects, so memory
+ * stays constant however large the bucket is: a listing thread blocks until the consumer catches up.
+ * <p>
+ * The unordered merge hands out objects as soon as any shard produces them. The sorted merge relies on the shards
+ * being disjoint ranges of the keyspace: the delimited listing marks each prefix in name order among its objects, and
+ * the prefix's shard is drained at that mark while the shards of the next prefixes fill their buffers.
+ * <p>
+ * Shards page through their listings on the thread that lists them rather than prefetching pages on the user
+ * executor, so that a bounded executor busy with shards cannot starve them.
+ */
+@Singleton
+public final class ShardedListStrategy {
+
+   static final String DELIMITER = "/";
+   /** The number of objects a shard may buffer ahead of the consumer, one page of a listing. */
+   static final int SHARD_BUFFER = 1000;
+   private static final Object END = new Object();
+
+   /** Orders objects as the service does; see {@link ObjectListToStorageMetadata#NAME_ORDER}. */
+   static final Comparator<GoogleCloudStorageObject> NAME_ORDER = new Comparator<GoogleCloudStorageObject>() {
+      @Override
+      public int compare(GoogleCloudStorageObject left, GoogleCloudStorageObject right) {
+         return ObjectListToStorageMetadata.NAME_ORDER.compare(left.name(), right.name());
+      }
+   };
+
+   /** Orders the objects and prefix marks of a delimited page by name. */
+   private static final Comparator<Object> ELEMENT_ORDER = new Comparator<Object>() {
+      @Override
+      public int compare(Object left, Object right) {
+         return ObjectListToStorageMetadata.NAME_ORDER.compare(name(left), name(right));
+      }
+
+      private String name(Object element) {
+         return element instanceof Prefix ? ((Prefix) element).name : ((GoogleCloudStorageObject) element).name();
+      }
+   };
+
+   private final GoogleCloudStorageApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int parallelism;
+
+   @Inject ShardedListStrategy(GoogleCloudStorageApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(LIST_PARALLELISM) int parallelism) {
+      checkArgument(parallelism > 0, "%s must be positive", LIST_PARALLELISM);
+      this.api = api;
+      this.userExecutor = userExecutor;
+      this.parallelism = parallelism;
+   }
+
+   /**
+    * @param bucket
+    *           bucket to list
+    * @param prefix
+    *           only list objects whose names start with this prefix
+    * @param sorted
+    *           whether objects must come out in name order
+    * @return the objects; must be drained or closed, so that the listing threads finish. A listing that fails, because
+    *         a shard failed or the consumer was interrupted, closes itself before it throws.
+    */
+   public Listing execute(String bucket, @Nullable String prefix, boolean sorted) {
+      String base = prefix == null ? "" : prefix;
+      ListPageWithPrefixes<GoogleCloudStorageObject> first = listPage(bucket, delimited(base));
+      // a single top-level "directory" does not split the keyspace; look inside it instead
+      while (first.isEmpty() && first.prefixes().size() == 1 && first.nextPageToken() == null) {
+         base = Iterables.getOnlyElement(first.prefixes());
+         first = listPage(bucket, delimited(base));
+      }
+
+      Listing listing = new Listing();
+      listing.delegate = sorted ? sorted(bucket, base, first, listing) : unordered(bucket, base, first, listing);
+      return listing;
+   }
+
+   private Iterator<GoogleCloudStorageObject> unordered(String bucket, String base,
+         ListPageWithPrefixes<GoogleCloudStorageObject> first, Listing listing) {
+      BlockingQueue<Object> shards = new LinkedBlockingQueue<Object>(first.prefixes());
+      DelimitedShard discovery = new DelimitedShard(base, first, shards, false);
+      shards.add(discovery);
+      // further prefixes may turn up on later pages of the delimited listing
+      int workers = first.nextPageToken() == null ? Math.min(parallelism, shards.size()) : parallelism;
+      BlockingQueue<Object> buffer = new ArrayBlockingQueue<Object>(SHARD_BUFFER * workers);
+      for (int i = 0; i < workers; i++) {
+         listing.futures.add(userExecutor.submit(new ShardWorker(bucket, shards, discovery, buffer,
+               listing.closed)));
+      }
+      return new BufferIterator<GoogleCloudStorageObject>(buffer, workers);
+   }
+
+   private Iterator<GoogleCloudStorageObject> sorted(final String bucket, String base,
+         ListPageWithPrefixes<GoogleCloudStorageObject> first, final Listing listing) {
+      final BlockingQueue<Object> found = new LinkedBlockingQueue<Object>(first.prefixes());
+      final Iterator<Object> delimited = start(bucket, new DelimitedShard(base, first, found, true), listing);
+      return new AbstractIterator<GoogleCloudStorageObject>() {
+         private final Map<Object, Iterator<GoogleCloudStorageObject>> started = Maps.newLinkedHashMap();
+         private Iterator<GoogleCloudStorageObject> current = ImmutableList.<GoogleCloudStorageObject> of().iterator();
+
+         @Override
+         protected GoogleCloudStorageObject computeNext() {
+            while (!current.hasNext()) {
+               if (!delimited.hasNext()) {
+                  return endOfData();
+               }
+               Object element = delimited.next();
+               if (!(element instanceof Prefix)) {
+                  return (GoogleCloudStorageObject) element;
+               }
+               String prefix = ((Prefix) element).name;
+               current = started.remove(prefix);
+               if (current == null) {
+                  // found lists the prefixes in the order they are marked, so this one is at its head
+                  found.remove(prefix);
+                  current = start(bucket, prefix, listing);
+               }
+               // keep the shards of the next prefixes listing ahead
+               while (started.size() + 1 < parallelism && !found.isEmpty()) {
+                  Object next = found.poll();
+                  started.put(next, ShardedListStrategy.this.<GoogleCloudStorageObject> start(bucket, next, listing));
+               }
+            }
+            return current.next();
+         }
+      };
+   }
+
+   /** Lists a single shard on the user executor. */
+   private <T> Iterator<T> start(String bucket, Object shard, Listing listing) {
+      BlockingQueue<Object> buffer = new ArrayBlockingQueue<Object>(SHARD_BUFFER);
+      BlockingQueue<Object> shards = new LinkedBlockingQueue<Object>(ImmutableList.of(shard));
+      listing.futures.add(userExecutor.submit(new ShardWorker(bucket, shards, null, buffer, listing.closed)));
+      return new BufferIterator<T>(buffer, 1);
+   }
+
+   private ListPageWithPrefixes<GoogleCloudStorageObject> listPage(String bucket, ListObjectOptions options) {
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = api.getObjectApi().listObjects(bucket, options);
+      if (page == null) {
+         throw new ContainerNotFoundException(bucket, null);
+      }
+      return page;
+   }
+
+   private static ListObjectOptions options(String prefix) {
+      ListObjectOptions options = new ListObjectOptions();
+      return prefix.isEmpty() ? options : options.prefix(prefix);
+   }
+
+   private static ListObjectOptions delimited(String prefix) {
+      return options(prefix).delimiter(DELIMITER);
+   }
+
+   /**
+    * The objects of a sharded listing. Closing it stops the shards that are still listing; it closes itself when it
+    * throws, since it cannot be drained after that.
+    */
+   public static final class Listing extends AbstractIterator<GoogleCloudStorageObject> implements Closeable {
+      private final AtomicBoolean closed = new AtomicBoolean();
+      private final List<Future<?>> futures = new CopyOnWriteArrayList<Future<?>>();
+      private Iterator<GoogleCloudStorageObject> delegate;
+
+      Listing() {
+      }
+
+      @Override
+      protected GoogleCloudStorageObject computeNext() {
+         try {
+            return delegate.hasNext() ? delegate.next() : endOfData();
+         } catch (RuntimeException e) {
+            // a failed shard or an interrupted take; the other shards would otherwise wait for room forever
+            close();
+            throw e;
+         }
+      }
+
+      @Override
+      public void close() {
+         closed.set(true);
+         for (Future<?> future : futures) {
+            future.cancel(true);
+         }
+      }
+   }
+
+   /** Marks where the objects of a prefix belong among the objects of a delimited listing. */
+   private static final class Prefix {
+      final String name;
+
+      Prefix(String name) {
+         this.name = name;
+      }
+   }
+
+   /**
+    * The delimited listing of the objects directly under a prefix, starting from a page that was already fetched. The
+    * prefixes of each page are handed to {@code found} before its objects are listed; if {@code marked}, they are also
+    * listed among the objects as {@link Prefix} marks.
+    */
+   private static final class DelimitedShard {
+      final String base;
+      final ListPageWithPrefixes<GoogleCloudStorageObject> first;
+      final BlockingQueue<Object> found;
+      final boolean marked;
+      volatile boolean done;
+
+      DelimitedShard(String base, ListPageWithPrefixes<GoogleCloudStorageObject> first, BlockingQueue<Object> found,
+            boolean marked) {
+         this.base = base;
+         this.first = first;
+         this.found = found;
+         this.marked = marked;
+      }
+   }
+
+   /** Lists shards until none are left, then marks the end of its output. */
+   private final class ShardWorker implements Runnable {
+      private final String bucket;
+      private final BlockingQueue<Object> shards;
+      @Nullable private final DelimitedShard discovery;
+      private final BlockingQueue<Object> buffer;
+      private final AtomicBoolean closed;
+
+      /**
+       * @param shards
+       *           prefixes to list recursively, and delimited shards
+       * @param discovery
+       *           the delimited shard that may still add prefixes to {@code shards}, if any
+       */
+      ShardWorker(String bucket, BlockingQueue<Object> shards, @Nullable DelimitedShard discovery,
+            BlockingQueue<Object> buffer, AtomicBoolean closed) {
+         this.bucket = bucket;
+         this.shards = shards;
+         this.discovery = discovery;
+         this.buffer = buffer;
+         this.closed = closed;
+      }
+
+      @Override
+      public void run() {
+         try {
+            for (Object shard = next(); shard != null; shard = next()) {
+               boolean listed = shard instanceof DelimitedShard ? list((DelimitedShard) shard)
+                     : list(options((String) shard));
+               if (!listed) {
+                  return;
+               }
+            }
+            put(END);
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+         } catch (RuntimeException e) {
+            put(new Failure(e));
+         }
+      }
+
+      /** Takes the next shard, waiting while the delimited listing may still find more. */
+      @Nullable private Object next() throws InterruptedException {
+         while (!closed.get()) {
+            Object shard = shards.poll(100, TimeUnit.MILLISECONDS);
+            // the delimited shard adds its prefixes before it is done, so none can be missed here
+            if (shard != null || discovery == null || (discovery.done && shards.isEmpty())) {
+               return shard;
+            }
+         }
+         return null;
+      }
+
+      private boolean list(ListObjectOptions options) {
+         while (true) {
+            ListPageWithPrefixes<GoogleCloudStorageObject> page = listPage(bucket, options);
+            for (GoogleCloudStorageObject object : page) {
+               if (!put(object)) {
+                  return false;
+               }
+            }
+            if (page.nextPageToken() == null) {
+               return true;
+            }
+            options.pageToken(page.nextPageToken());
+         }
+      }
+
+      private boolean list(DelimitedShard shard) {
+         try {
+            ListPageWithPrefixes<GoogleCloudStorageObject> page = shard.first;
+            while (true) {
+               List<Object> elements = Lists.<Object> newArrayList(page);
+               if (page != shard.first) {
+                  shard.found.addAll(page.prefixes());
+               }
+               if (shard.marked) {
+                  for (String prefix : page.prefixes()) {
+                     elements.add(new Prefix(prefix));
+                  }
+                  // a page covers a contiguous range of names, in which the prefixes interleave with the objects
+                  Collections.sort(elements, ELEMENT_ORDER);
+               }
+               for (Object element : elements) {
+                  if (!put(element)) {
+                     return false;
+                  }
+               }
+               if (page.nextPageToken() == null) {
+                  return true;
+               }
+               page = listPage(bucket, delimited(shard.base).pageToken(page.nextPageToken()));
+            }
+         } finally {
+            shard.done = true;
+         }
+      }
+
+      /** Waits for room in the buffer; gives up once the listing is closed. */
+      private boolean put(Object element) {
+         try {
+            while (!closed.get()) {
+               if (buffer.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                  return true;
+               }
+            }
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+         }
+         return false;
+      }
+   }
+
+   private static final class Failure {
+      final RuntimeException cause;
+
+      Failure(RuntimeException cause) {
+         this.cause = cause;
+      }
+   }
+
+   /** Drains a buffer filled by {@code workers} workers, until each has marked its end. */
+   private static final class BufferIterator<T> extends AbstractIterator<T> {
+      private final BlockingQueue<Object> buffer;
+      private int running;
+
+      BufferIterator(BlockingQueue<Object> buffer, int workers) {
+         this.buffer = buffer;
+         this.running = workers;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      protected T computeNext() {
+         while (running > 0) {
+            Object element;
+            try {
+               element = buffer.take();
+            } catch (InterruptedException ie) {
+               Thread.currentThread().interrupt();
+               throw Throwables.propagate(ie);
+            }
+            if (element == END) {
+               running--;
+            } else if (element instanceof Failure) {
+               throw ((Failure) element).cause;
+            } else {
+               return (T) element;
+            }
+         }
+         return endOfData();
+      }
+   }
+}
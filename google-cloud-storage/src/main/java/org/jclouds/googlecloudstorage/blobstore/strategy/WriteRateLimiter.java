@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_INITIAL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_MAX;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_PER_OBJECT;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.WRITE_RATE_RAMP_PERIOD;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+/**
+ * Paces object writes to stay within the service's write limits: a per-bucket rate that starts at
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#WRITE_RATE_INITIAL} writes per second
+ * and doubles every {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#WRITE_RATE_RAMP_PERIOD}
+ * up to {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#WRITE_RATE_MAX}, and a rate per
+ * object name. A write over either rate waits for its turn instead of failing. A bucket left without writes for a
+ * ramp period starts again from the initial rate.
+ * <p>
+ * Each rate is a token bucket holding up to one second of writes, kept as the theoretical arrival time of the next
+ * write (the generic cell rate algorithm), so that reserving a turn is a single compare-and-set. The pacer of an
+ * object name is dropped by a periodic sweep once that time has passed, as it then no longer delays any write.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/request-rate"/>
+ */
+@Singleton
+public final class WriteRateLimiter {
+
+   /** The theoretical arrival time of a swept object pacer, which must no longer be used. */
+   private static final long RETIRED = Long.MAX_VALUE;
+
+   private final double initialRate;
+   private final double maxRate;
+   private final long rampPeriodNanos;
+   private final double perObjectRate;
+   private final Ticker ticker;
+   private final ConcurrentMap<String, Pacer> buckets = new ConcurrentHashMap<String, Pacer>();
+   private final ConcurrentMap<String, Pacer> objects = new ConcurrentHashMap<String, Pacer>();
+   private final long sweepIntervalNanos;
+   private final AtomicLong nextSweep;
+
+   @Inject WriteRateLimiter(@Named(WRITE_RATE_INITIAL) double initialRate, @Named(WRITE_RATE_MAX) double maxRate,
+         @Named(WRITE_RATE_RAMP_PERIOD) long rampPeriodMillis, @Named(WRITE_RATE_PER_OBJECT) double perObjectRate) {
+      this(initialRate, maxRate, rampPeriodMillis, perObjectRate, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   WriteRateLimiter(double initialRate, double maxRate, long rampPeriodMillis, double perObjectRate, Ticker ticker) {
+      checkArgument(maxRate >= 0, "%s must not be negative", WRITE_RATE_MAX);
+      checkArgument(maxRate == 0 || initialRate > 0, "%s must be positive", WRITE_RATE_INITIAL);
+      checkArgument(rampPeriodMillis > 0, "%s must be positive", WRITE_RATE_RAMP_PERIOD);
+      checkArgument(perObjectRate >= 0, "%s must not be negative", WRITE_RATE_PER_OBJECT);
+      this.initialRate = Math.min(initialRate, maxRate);
+      this.maxRate = maxRate;
+      this.rampPeriodNanos = TimeUnit.MILLISECONDS.toNanos(rampPeriodMillis);
+      this.perObjectRate = perObjectRate;
+      this.ticker = ticker;
+      this.sweepIntervalNanos = perObjectRate == 0 ? 0
+            : TimeUnit.MILLISECONDS.toNanos((long) Math.ceil(2000 / perObjectRate));
+      this.nextSweep = new AtomicLong(ticker.read() + sweepIntervalNanos);
+   }
+
+   public boolean isEnabled() {
+      return maxRate > 0 || perObjectRate > 0;
+   }
+
+   /** Waits until a write to the named object is within the rates of its bucket and its name. */
+   public void acquire(String container, String name) throws InterruptedException {
+      long wait = reserve(container, name);
+      if (wait > 0) {
+         TimeUnit.NANOSECONDS.sleep(wait);
+      }
+   }
+
+   /**
+    * Waits until writes to all the named objects, such as the requests of one batch, are within the rates of their
+    * bucket and their names.
+    */
+   public void acquire(String container, Iterable<String> names) throws InterruptedException {
+      long wait = 0;
+      // the turns are reserved in order, so the batch waits for the last of them
+      for (String name : names) {
+         wait = Math.max(wait, reserve(container, name));
+      }
+      if (wait > 0) {
+         TimeUnit.NANOSECONDS.sleep(wait);
+      }
+   }
+
+   /** Reserves the next turn to write the named object and returns how many nanoseconds to wait for it. */
+   @VisibleForTesting
+   long reserve(String container, String name) {
+      long wait = 0;
+      if (maxRate > 0) {
+         wait = bucketPacer(container).reserve();
+      }
+      if (perObjectRate > 0) {
+         wait = Math.max(wait, reserveObject(container + '/' + name));
+      }
+      return wait;
+   }
+
+   /** Returns the current write rate of the bucket, in writes per second. */
+   public double getRate(String container) {
+      if (maxRate == 0) {
+         return Double.POSITIVE_INFINITY;
+      }
+      Pacer pacer = bucketPacer(container);
+      return pacer.rate(ticker.read(), pacer.theoreticalArrival.get());
+   }
+
+   /** Returns how many object names have a pacer. */
+   @VisibleForTesting
+   int objectPacers() {
+      return objects.size();
+   }
+
+   private Pacer bucketPacer(String container) {
+      Pacer pacer = buckets.get(container);
+      if (pacer == null) {
+         Pacer created = new RampingPacer(ticker.read());
+         pacer = buckets.putIfAbsent(container, created);
+         if (pacer == null) {
+            pacer = created;
+         }
+      }
+      return pacer;
+   }
+
+   private long reserveObject(String key) {
+      sweep();
+      while (true) {
+         Pacer pacer = objects.get(key);
+         if (pacer == null) {
+            Pacer created = new Pacer(perObjectRate);
+            pacer = objects.putIfAbsent(key, created);
+            if (pacer == null) {
+               pacer = created;
+            }
+         }
+         long wait = pacer.reserve();
+         if (wait != RETIRED) {
+            return wait;
+         }
+         // swept between the lookup and the reservation; the sweep removes it, but may not have yet
+         objects.remove(key, pacer);
+      }
+   }
+
+   /** Drops the object pacers whose turns have all passed, at most once per sweep interval. */
+   private void sweep() {
+      long now = ticker.read();
+      long next = nextSweep.get();
+      if (now - next < 0 || !nextSweep.compareAndSet(next, now + sweepIntervalNanos)) {
+         return;
+      }
+      for (Map.Entry<String, Pacer> entry : objects.entrySet()) {
+         if (entry.getValue().retire(now)) {
+            objects.remove(entry.getKey(), entry.getValue());
+         }
+      }
+   }
+
+   /** A token bucket at a fixed rate with a burst of one second's worth of tokens, at least one. */
+   private class Pacer {
+      final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+      private final double fixedRate;
+
+      Pacer(double fixedRate) {
+         this.fixedRate = fixedRate;
+      }
+
+      /** Returns the rate of a write at {@code now}, given the theoretical arrival time before it. */
+      double rate(long now, long arrival) {
+         return fixedRate;
+      }
+
+      /** Called before reserving a turn at {@code now}, given the theoretical arrival time before it. */
+      void beforeReserve(long now, long arrival) {
+      }
+
+      /**
+       * Reserves the next turn and returns how many nanoseconds to wait for it, or {@code RETIRED} if the pacer has
+       * been swept.
+       */
+      final long reserve() {
+         while (true) {
+            long now = ticker.read();
+            long arrival = theoreticalArrival.get();
+            if (arrival == RETIRED) {
+               return RETIRED;
+            }
+            beforeReserve(now, arrival);
+            double rate = rate(now, arrival);
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long tolerance = (long) (interval * (Math.max(1, Math.floor(rate)) - 1));
+            long start = arrival == Long.MIN_VALUE ? now : Math.max(arrival, now);
+            if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+               return start - now - tolerance;
+            }
+         }
+      }
+
+      /** Retires the pacer if its theoretical arrival time has passed, returning whether it did. */
+      final boolean retire(long now) {
+         long arrival = theoreticalArrival.get();
+         return arrival != RETIRED && arrival - now <= 0 && theoreticalArrival.compareAndSet(arrival, RETIRED);
+      }
+   }
+
+   /** A bucket's pacer, whose rate doubles every ramp period since its first write after being idle. */
+   private final class RampingPacer extends Pacer {
+      private final AtomicLong rampStart;
+
+      RampingPacer(long created) {
+         super(maxRate);
+         this.rampStart = new AtomicLong(created);
+      }
+
+      @Override
+      double rate(long now, long arrival) {
+         long start = idle(now, arrival) ? now : rampStart.get();
+         double doublings = (double) (now - start) / rampPeriodNanos;
+         return Math.min(maxRate, initialRate * Math.pow(2, doublings));
+      }
+
+      @Override
+      void beforeReserve(long now, long arrival) {
+         // every writer that sees the same idle arrival time restarts the ramp, whichever of them reserves first
+         long start = rampStart.get();
+         if (idle(now, arrival) && start - arrival < 0) {
+            rampStart.compareAndSet(start, now);
+         }
+      }
+
+      /** Returns whether no write was due for a ramp period before {@code now}. */
+      private boolean idle(long now, long arrival) {
+         return arrival != Long.MIN_VALUE && now - arrival >= rampPeriodNanos;
+      }
+   }
+}
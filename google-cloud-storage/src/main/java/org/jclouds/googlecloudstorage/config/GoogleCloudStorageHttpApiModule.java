@@ -16,13 +16,22 @@
  */
 package org.jclouds.googlecloudstorage.config;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.domain.Credentials;
 import org.jclouds.googlecloud.config.CurrentProject;
 import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.features.AsyncBucketApi;
+import org.jclouds.googlecloudstorage.features.AsyncObjectApi;
+import org.jclouds.googlecloudstorage.features.BucketApi;
+import org.jclouds.googlecloudstorage.features.ObjectApi;
 import org.jclouds.googlecloudstorage.handlers.GoogleCloudStorageErrorHandler;
+import org.jclouds.googlecloudstorage.handlers.GoogleCloudStorageRetryHandler;
+import org.jclouds.googlecloudstorage.metrics.MeteredApi;
 import org.jclouds.http.HttpErrorHandler;
+import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
 import org.jclouds.http.annotation.Redirection;
 import org.jclouds.http.annotation.ServerError;
@@ -30,11 +39,14 @@ import org.jclouds.location.Provider;
 import org.jclouds.oauth.v2.config.OAuthScopes;
 import org.jclouds.rest.ConfiguresHttpApi;
 import org.jclouds.rest.config.HttpApiModule;
+import org.jclouds.rest.internal.InvokeHttpMethod;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Provides;
+import com.google.inject.matcher.Matchers;
 
 @ConfiguresHttpApi
 public class GoogleCloudStorageHttpApiModule extends HttpApiModule<GoogleCloudStorageApi> {
@@ -42,6 +54,9 @@ public class GoogleCloudStorageHttpApiModule extends HttpApiModule<GoogleCloudSt
    @Override public void configure(){
       super.configure();
       bind(OAuthScopes.class).toInstance(GoogleCloudStorageOAuthScopes.create());
+      MeteredApi meteredApi = new MeteredApi();
+      requestInjection(meteredApi);
+      bindInterceptor(Matchers.subclassesOf(InvokeHttpMethod.class), MeteredApi.APPLY, meteredApi);
    }
 
    @Override
@@ -51,6 +66,12 @@ public class GoogleCloudStorageHttpApiModule extends HttpApiModule<GoogleCloudSt
       bind(HttpErrorHandler.class).annotatedWith(ServerError.class).to(GoogleCloudStorageErrorHandler.class);
    }
 
+   @Override
+   protected void bindRetryHandlers() {
+      bind(HttpRetryHandler.class).annotatedWith(ClientError.class).to(GoogleCloudStorageRetryHandler.class);
+      bind(HttpRetryHandler.class).annotatedWith(ServerError.class).to(GoogleCloudStorageRetryHandler.class);
+   }
+
    @Provides
    @Singleton @CurrentProject
    public Supplier<String> supplyProject(@Provider final Supplier<Credentials> creds) {
@@ -60,4 +81,18 @@ public class GoogleCloudStorageHttpApiModule extends HttpApiModule<GoogleCloudSt
          }
       }, creds);
    }
+
+   @Provides
+   @Singleton
+   AsyncObjectApi provideAsyncObjectApi(GoogleCloudStorageApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      return SyncToAsyncProxy.create(AsyncObjectApi.class, api.getObjectApi(), ObjectApi.class, userExecutor);
+   }
+
+   @Provides
+   @Singleton
+   AsyncBucketApi provideAsyncBucketApi(GoogleCloudStorageApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      return SyncToAsyncProxy.create(AsyncBucketApi.class, api.getBucketApi(), BucketApi.class, userExecutor);
+   }
 }
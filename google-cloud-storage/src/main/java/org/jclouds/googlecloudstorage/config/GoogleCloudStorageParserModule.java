@@ -24,6 +24,7 @@ import javax.inject.Singleton;
 
 import org.jclouds.googlecloud.config.ListPageAdapterFactory;
 import org.jclouds.googlecloudstorage.domain.templates.BucketTemplate;
+import org.jclouds.googlecloudstorage.parser.ObjectListTypeAdapter;
 import org.jclouds.json.config.GsonModule;
 
 import com.google.common.collect.ImmutableMap;
@@ -49,8 +50,9 @@ public class GoogleCloudStorageParserModule extends AbstractModule {
    }
 
    // TODO: change jclouds core to use collaborative set bindings
+   // gson consults the factories registered last first, so object listings are read by ObjectListTypeAdapter
    @Provides @Singleton Set<TypeAdapterFactory> typeAdapterFactories() {
-      return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory());
+      return ImmutableSet.<TypeAdapterFactory>of(new ListPageAdapterFactory(), new ObjectListTypeAdapter.Factory());
    }
 
    private static class BucketTemplateTypeAdapter implements JsonSerializer<BucketTemplate> {
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.config;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.Reflection;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Implements an asynchronous interface by submitting each call to the synchronous method with the same name and
+ * parameter types. The methods are matched once, when the proxy is created, so a missing counterpart fails fast.
+ */
+final class SyncToAsyncProxy implements InvocationHandler {
+
+   static <A> A create(Class<A> asyncApi, Object delegate, Class<?> syncApi, ListeningExecutorService executor) {
+      ImmutableMap.Builder<Method, Method> methods = ImmutableMap.builder();
+      for (Method async : asyncApi.getMethods()) {
+         checkState(async.getReturnType() == ListenableFuture.class, "%s does not return a future", async);
+         try {
+            methods.put(async, syncApi.getMethod(async.getName(), async.getParameterTypes()));
+         } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(String.format("%s has no counterpart in %s", async, syncApi), e);
+         }
+      }
+      return Reflection.newProxy(asyncApi, new SyncToAsyncProxy(delegate, methods.build(), executor));
+   }
+
+   private final Object delegate;
+   private final Map<Method, Method> methods;
+   private final ListeningExecutorService executor;
+
+   private SyncToAsyncProxy(Object delegate, Map<Method, Method> methods, ListeningExecutorService executor) {
+      this.delegate = delegate;
+      this.methods = methods;
+      this.executor = executor;
+   }
+
+   @Override
+   public Object invoke(Object proxy, Method method, final Object[] args) throws Throwable {
+      final Method sync = methods.get(method);
+      if (sync == null) {
+         // equals, hashCode and toString
+         return method.getName().equals("equals") ? proxy == args[0] : method.invoke(this, args);
+      }
+      return executor.submit(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            try {
+               return sync.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+               Throwable cause = e.getCause();
+               if (cause instanceof Exception) {
+                  throw (Exception) cause;
+               }
+               throw (Error) cause;
+            }
+         }
+      });
+   }
+
+   @Override
+   public String toString() {
+      return "async(" + delegate + ")";
+   }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.config;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.jclouds.concurrent.config.ConfiguresExecutorService;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.AbstractModule;
+
+/**
+ * Runs the user executor on virtual threads, one per task, so that thousands of blocking requests can be in flight
+ * without a platform thread each. Opt in by passing the module to the context builder in place of an
+ * {@link ExecutorServiceModule}:
+ *
+ * <pre>
+ * ContextBuilder.newBuilder("google-cloud-storage")
+ *       .modules(ImmutableSet.&lt;Module&gt; of(new VirtualThreadExecutorModule()))
+ * </pre>
+ *
+ * The module installs jclouds' own {@link ExecutorServiceModule}, so every binding it makes is kept and only the
+ * user executor changes. Virtual threads need JDK 21 or later; on older JDKs the module installs the
+ * {@link ExecutorServiceModule} unchanged, with its pool of {@link org.jclouds.Constants#PROPERTY_USER_THREADS}
+ * threads. With virtual threads that property is ignored, so bound concurrency elsewhere if the service needs it.
+ */
+@ConfiguresExecutorService
+public class VirtualThreadExecutorModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+      ExecutorService executor = newVirtualThreadPerTaskExecutor();
+      if (executor == null) {
+         install(new ExecutorServiceModule());
+         return;
+      }
+      install(new ExecutorServiceModule(MoreExecutors.listeningDecorator(executor)));
+      // ExecutorServiceModule leaves an executor it is given running; shut it down with the context
+      requestInjection(new ShutdownOnClose(executor));
+   }
+
+   /** Returns whether this JDK can create virtual threads. */
+   public static boolean virtualThreadsAvailable() {
+      return virtualThreadFactory() != null;
+   }
+
+   private static ExecutorService newVirtualThreadPerTaskExecutor() {
+      Method factory = virtualThreadFactory();
+      if (factory != null) {
+         try {
+            return (ExecutorService) factory.invoke(null);
+         } catch (ReflectiveOperationException e) {
+            // e.g. a JDK with virtual threads as a disabled preview feature
+         }
+      }
+      return null;
+   }
+
+   private static Method virtualThreadFactory() {
+      try {
+         // JDK 21+; looked up reflectively so that the provider still builds and runs on older JDKs
+         return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      } catch (NoSuchMethodException e) {
+         return null;
+      }
+   }
+
+   static final class ShutdownOnClose implements Closeable {
+      private final ExecutorService executor;
+
+      ShutdownOnClose(ExecutorService executor) {
+         this.executor = executor;
+      }
+
+      @Inject
+      void register(Closer closer) {
+         closer.addToClose(this);
+      }
+
+      @Override
+      public void close() {
+         executor.shutdown();
+         try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+}
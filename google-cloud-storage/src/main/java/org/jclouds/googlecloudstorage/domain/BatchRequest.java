@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.domain;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Strings2;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * A single HTTP request inside a batch, sent with {@link org.jclouds.googlecloudstorage.features.BatchApi}.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/batch"/>
+ */
+@AutoValue
+public abstract class BatchRequest {
+
+   /** The HTTP method, for example {@code DELETE}. */
+   public abstract String method();
+
+   /** The encoded path of the request, including any query string, for example {@code /storage/v1/b/bucket/o/a%2Fb}. */
+   public abstract String path();
+
+   /** The JSON body of the request, if any. */
+   @Nullable public abstract String payload();
+
+   public static BatchRequest create(String method, String path, String payload) {
+      return new AutoValue_BatchRequest(method, path, payload);
+   }
+
+   /**
+    * @param bucketName
+    *           Name of the bucket in which the object resides.
+    * @param objectName
+    *           Unencoded name of the object.
+    */
+   public static BatchRequest deleteObject(String bucketName, String objectName) {
+      return create("DELETE", "/storage/v1/b/" + bucketName + "/o/" + Strings2.urlEncode(objectName), null);
+   }
+
+   BatchRequest() {
+   }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.domain;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.auto.value.AutoValue;
+
+/** The outcome of one {@link BatchRequest}, parsed from the {@code multipart/mixed} response of a batch. */
+@AutoValue
+public abstract class BatchResponse {
+
+   public abstract int statusCode();
+
+   /** The body of the response, usually JSON, or {@code null} if it was empty. */
+   @Nullable public abstract String payload();
+
+   public boolean isSuccessful() {
+      return statusCode() >= 200 && statusCode() < 300;
+   }
+
+   public static BatchResponse create(int statusCode, String payload) {
+      return new AutoValue_BatchResponse(statusCode, payload);
+   }
+
+   BatchResponse() {
+   }
+}
@@ -16,7 +16,13 @@
  */
 package org.jclouds.googlecloudstorage.domain;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import com.google.common.base.CaseFormat;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 
 public final class DomainResourceReferences {
 
@@ -98,4 +104,71 @@ public final class DomainResourceReferences {
          return valueOf(CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, destinationPredefinedAcl));
       }
    }
+
+   /**
+    * The properties of {@link GoogleCloudStorageObject} that can be selected with a {@code fields} parameter.
+    *
+    * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/performance#partial-response"/>
+    */
+   public enum ObjectField {
+      ID, SELF_LINK, ETAG, NAME, BUCKET, GENERATION, METAGENERATION, CONTENT_TYPE, UPDATED, TIME_DELETED,
+      STORAGE_CLASS, SIZE, MD5_HASH, MEDIA_LINK, METADATA, CONTENT_ENCODING, CONTENT_DISPOSITION, CONTENT_LANGUAGE,
+      CACHE_CONTROL, ACL, OWNER, CRC32C, COMPONENT_COUNT;
+
+      /** The fields every object must carry to parse; they are always part of a selector. */
+      public static final Set<ObjectField> REQUIRED = Sets.immutableEnumSet(ETAG, NAME, GENERATION, SIZE);
+
+      public String value() {
+         return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, name());
+      }
+
+      @Override
+      public String toString() {
+         return value();
+      }
+
+      public static ObjectField fromValue(String field) {
+         return valueOf(CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, field));
+      }
+
+      /** Returns the comma separated selector for the given fields and the {@link #REQUIRED} ones. */
+      public static String selector(Iterable<ObjectField> fields) {
+         EnumSet<ObjectField> selected = EnumSet.copyOf(REQUIRED);
+         Iterables.addAll(selected, fields);
+         return Joiner.on(',').join(selected);
+      }
+   }
+
+   /**
+    * The properties of {@link Bucket} that can be selected with a {@code fields} parameter.
+    *
+    * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/performance#partial-response"/>
+    */
+   public enum BucketField {
+      ID, NAME, PROJECT_NUMBER, TIME_CREATED, METAGENERATION, ACL, DEFAULT_OBJECT_ACL, OWNER, LOCATION, WEBSITE,
+      LOGGING, VERSIONING, CORS, LIFECYCLE, STORAGE_CLASS;
+
+      /** The fields every bucket must carry to parse; they are always part of a selector. */
+      public static final Set<BucketField> REQUIRED = Sets.immutableEnumSet(NAME);
+
+      public String value() {
+         return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, name());
+      }
+
+      @Override
+      public String toString() {
+         return value();
+      }
+
+      public static BucketField fromValue(String field) {
+         return valueOf(CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, field));
+      }
+
+      /** Returns the comma separated selector for the given fields and the {@link #REQUIRED} ones. */
+      public static String selector(Iterable<BucketField> fields) {
+         EnumSet<BucketField> selected = EnumSet.copyOf(REQUIRED);
+         Iterables.addAll(selected, fields);
+         return Joiner.on(',').join(selected);
+      }
+   }
 }
@@ -31,28 +31,28 @@ import org.jclouds.json.SerializedNames;
 import com.google.auto.value.AutoValue;
 
 /**
- * This class represent an object in a Google Cloud Storage Bucket.
+ * This class represent an object in a Google Cloud Storage Bucket. Only {@code name}, {@code etag},
+ * {@code generation} and {@code size} are required, so that listings with a {@code fields} projection still parse.
  *
  * @see <a href = "https://developers.google.com/storage/docs/json_api/v1/Objects"/>
  */
 @AutoValue
-// TODO: nullable sweep
 public abstract class GoogleCloudStorageObject {
 
-   public abstract String id();
-   public abstract URI selfLink();
+   @Nullable public abstract String id();
+   @Nullable public abstract URI selfLink();
    public abstract String etag();
    public abstract String name();
-   public abstract String bucket();
+   @Nullable public abstract String bucket();
    public abstract long generation();
-   public abstract long metageneration();
-   public abstract String contentType();
-   public abstract Date updated();
+   @Nullable public abstract Long metageneration();
+   @Nullable public abstract String contentType();
+   @Nullable public abstract Date updated();
    @Nullable public abstract Date timeDeleted();
-   public abstract StorageClass storageClass();
+   @Nullable public abstract StorageClass storageClass();
    public abstract long size();
    @Nullable public abstract String md5Hash();
-   public abstract URI mediaLink();
+   @Nullable public abstract URI mediaLink();
    public abstract Map<String, String> metadata();
    @Nullable public abstract String contentEncoding();
    @Nullable public abstract String contentDisposition();
@@ -68,7 +68,7 @@ public abstract class GoogleCloudStorageObject {
                "timeDeleted", "storageClass", "size", "md5Hash", "mediaLink", "metadata", "contentEncoding",
                "contentDisposition", "contentLanguage", "cacheControl", "acl", "owner", "crc32c", "componentCount" })
    public static GoogleCloudStorageObject create(String id, URI selfLink, String etag, String name, String bucket, long generation,
-         long metageneration, String contentType, Date updated, Date timeDeleted, StorageClass storageClass, long size,
+         Long metageneration, String contentType, Date updated, Date timeDeleted, StorageClass storageClass, long size,
          String md5Hash, URI mediaLink, Map<String, String> metadata, String contentEncoding, String contentDisposition,
          String contentLanguage, String cacheControl, List<ObjectAccessControls> acl, Owner owner, String crc32c,
          Integer componentCount) {
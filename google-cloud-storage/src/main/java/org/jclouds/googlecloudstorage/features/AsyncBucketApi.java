@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.features;
+
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecloudstorage.domain.Bucket;
+import org.jclouds.googlecloudstorage.domain.templates.BucketTemplate;
+import org.jclouds.googlecloudstorage.options.DeleteBucketOptions;
+import org.jclouds.googlecloudstorage.options.GetBucketOptions;
+import org.jclouds.googlecloudstorage.options.InsertBucketOptions;
+import org.jclouds.googlecloudstorage.options.ListOptions;
+import org.jclouds.googlecloudstorage.options.UpdateBucketOptions;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous counterpart of {@link BucketApi}: every method has the same parameters and fallbacks as the
+ * {@link BucketApi} method of the same name, and runs it on the user executor. Obtain it from the context's injector.
+ *
+ * @see AsyncObjectApi
+ */
+public interface AsyncBucketApi {
+
+   /** @see BucketApi#bucketExist */
+   ListenableFuture<Boolean> bucketExist(String bucketName);
+
+   /** @see BucketApi#getBucket */
+   ListenableFuture<Bucket> getBucket(String bucketName);
+
+   /** @see BucketApi#getBucket */
+   ListenableFuture<Bucket> getBucket(String bucketName, GetBucketOptions options);
+
+   /** @see BucketApi#createBucket */
+   ListenableFuture<Bucket> createBucket(String projectId, BucketTemplate bucketTemplate);
+
+   /** @see BucketApi#createBucket */
+   ListenableFuture<Bucket> createBucket(String projectId, BucketTemplate bucketTemplate, InsertBucketOptions options);
+
+   /** @see BucketApi#deleteBucket */
+   ListenableFuture<Boolean> deleteBucket(String bucketName);
+
+   /** @see BucketApi#deleteBucket */
+   ListenableFuture<Boolean> deleteBucket(String bucketName, DeleteBucketOptions options);
+
+   /** @see BucketApi#listBucket */
+   ListenableFuture<ListPage<Bucket>> listBucket(String projectId);
+
+   /** @see BucketApi#listBucket */
+   ListenableFuture<ListPage<Bucket>> listBucket(String projectId, ListOptions options);
+
+   /** @see BucketApi#updateBucket */
+   ListenableFuture<Bucket> updateBucket(String bucketName, BucketTemplate bucketTemplate);
+
+   /** @see BucketApi#updateBucket */
+   ListenableFuture<Bucket> updateBucket(String bucketName, BucketTemplate bucketTemplate,
+         UpdateBucketOptions options);
+
+   /** @see BucketApi#patchBucket */
+   ListenableFuture<Bucket> patchBucket(String bucketName, BucketTemplate bucketTemplate);
+
+   /** @see BucketApi#patchBucket */
+   ListenableFuture<Bucket> patchBucket(String bucketName, BucketTemplate bucketTemplate,
+         UpdateBucketOptions options);
+}
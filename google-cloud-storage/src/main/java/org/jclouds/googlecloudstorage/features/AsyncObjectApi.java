@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.features;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.googlecloudstorage.domain.RewriteResponse;
+import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
+import org.jclouds.googlecloudstorage.options.ComposeObjectOptions;
+import org.jclouds.googlecloudstorage.options.CopyObjectOptions;
+import org.jclouds.googlecloudstorage.options.DeleteObjectOptions;
+import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
+import org.jclouds.googlecloudstorage.options.ListObjectOptions;
+import org.jclouds.googlecloudstorage.options.RewriteObjectOptions;
+import org.jclouds.googlecloudstorage.options.UpdateObjectOptions;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadEnclosing;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous counterpart of {@link ObjectApi}: every method has the same parameters and fallbacks as the
+ * {@link ObjectApi} method of the same name, and runs it on the user executor, so that callers can issue many requests
+ * without a thread of their own per request and compose the results. Object names are url encoded, as for
+ * {@link ObjectApi}. Obtain it from the context's injector.
+ *
+ * @see org.jclouds.Constants#PROPERTY_USER_THREADS
+ */
+public interface AsyncObjectApi {
+
+   /** @see ObjectApi#objectExists */
+   ListenableFuture<Boolean> objectExists(String bucketName, String objectName);
+
+   /** @see ObjectApi#getObject */
+   ListenableFuture<GoogleCloudStorageObject> getObject(String bucketName, String objectName);
+
+   /** @see ObjectApi#getObject */
+   ListenableFuture<GoogleCloudStorageObject> getObject(String bucketName, String objectName,
+         HttpRequestOptions options);
+
+   /** @see ObjectApi#download */
+   ListenableFuture<PayloadEnclosing> download(String bucketName, String objectName);
+
+   /** @see ObjectApi#download */
+   ListenableFuture<PayloadEnclosing> download(String bucketName, String objectName, HttpRequestOptions options);
+
+   /** @see ObjectApi#downloadBlob */
+   ListenableFuture<Blob> downloadBlob(String bucketName, String objectName, HttpRequestOptions options);
+
+   /** @see ObjectApi#downloadBlobIfModified */
+   ListenableFuture<Blob> downloadBlobIfModified(String bucketName, String objectName, HttpRequestOptions options);
+
+   /** @see ObjectApi#simpleUpload */
+   ListenableFuture<GoogleCloudStorageObject> simpleUpload(String bucketName, String contentType, Long contentLength,
+         Payload payload, InsertObjectOptions options);
+
+   /** @see ObjectApi#deleteObject */
+   ListenableFuture<Boolean> deleteObject(String bucketName, String objectName);
+
+   /** @see ObjectApi#deleteObject */
+   ListenableFuture<Boolean> deleteObject(String bucketName, String objectName, DeleteObjectOptions options);
+
+   /** @see ObjectApi#listObjects */
+   ListenableFuture<ListPageWithPrefixes<GoogleCloudStorageObject>> listObjects(String bucketName);
+
+   /** @see ObjectApi#listObjects */
+   ListenableFuture<ListPageWithPrefixes<GoogleCloudStorageObject>> listObjects(String bucketName,
+         ListObjectOptions options);
+
+   /** @see ObjectApi#updateObject */
+   ListenableFuture<GoogleCloudStorageObject> updateObject(String bucketName, String objectName,
+         ObjectTemplate objectTemplate);
+
+   /** @see ObjectApi#updateObject */
+   ListenableFuture<GoogleCloudStorageObject> updateObject(String bucketName, String objectName,
+         ObjectTemplate objectTemplate, UpdateObjectOptions options);
+
+   /** @see ObjectApi#patchObject */
+   ListenableFuture<GoogleCloudStorageObject> patchObject(String bucketName, String objectName,
+         ObjectTemplate objectTemplate);
+
+   /** @see ObjectApi#patchObject */
+   ListenableFuture<GoogleCloudStorageObject> patchObject(String bucketName, String objectName,
+         ObjectTemplate objectTemplate, UpdateObjectOptions options);
+
+   /** @see ObjectApi#composeObjects */
+   ListenableFuture<GoogleCloudStorageObject> composeObjects(String destinationBucket, String destinationObject,
+         ComposeObjectTemplate composeObjectTemplate);
+
+   /** @see ObjectApi#composeObjects */
+   ListenableFuture<GoogleCloudStorageObject> composeObjects(String destinationBucket, String destinationObject,
+         ComposeObjectTemplate composeObjectTemplate, ComposeObjectOptions options);
+
+   /** @see ObjectApi#copyObject */
+   ListenableFuture<GoogleCloudStorageObject> copyObject(String destinationBucket, String destinationObject,
+         String sourceBucket, String sourceObject);
+
+   /** @see ObjectApi#copyObject */
+   ListenableFuture<GoogleCloudStorageObject> copyObject(String destinationBucket, String destinationObject,
+         String sourceBucket, String sourceObject, CopyObjectOptions options);
+
+   /** @see ObjectApi#multipartUpload */
+   ListenableFuture<GoogleCloudStorageObject> multipartUpload(String bucketName, ObjectTemplate objectTemplate,
+         Payload payload);
+
+   /** @see ObjectApi#rewriteObjects */
+   ListenableFuture<RewriteResponse> rewriteObjects(String destinationBucket, String destinationObject,
+         String sourceBucket, String sourceObject);
+
+   /** @see ObjectApi#rewriteObjects */
+   ListenableFuture<RewriteResponse> rewriteObjects(String destinationBucket, String destinationObject,
+         String sourceBucket, String sourceObject, RewriteObjectOptions options);
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.features;
+
+import java.util.List;
+
+import javax.inject.Named;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+
+import org.jclouds.googlecloudstorage.binders.BatchRequestsBinder;
+import org.jclouds.googlecloudstorage.domain.BatchRequest;
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
+import org.jclouds.googlecloudstorage.parser.ParseToBatchResponses;
+import org.jclouds.oauth.v2.filters.OAuthFilter;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
+
+/**
+ * Sends several JSON API requests in a single HTTP request.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/batch"/>
+ */
+@RequestFilters(OAuthFilter.class)
+public interface BatchApi {
+
+   /** The maximum number of requests the service accepts in one batch. */
+   int MAX_BATCH_SIZE = 100;
+
+   /**
+    * Executes up to {@value #MAX_BATCH_SIZE} requests as one {@code multipart/mixed} request. Failures of individual
+    * requests do not fail the batch; they are reported in the matching {@link BatchResponse}.
+    *
+    * @param requests
+    *           the requests to send
+    * @return one response per request, in the order of the requests
+    */
+   @Named("Batch:execute")
+   @POST
+   @Path("/batch/storage/v1")
+   @ResponseParser(ParseToBatchResponses.class)
+   List<BatchResponse> execute(@BinderParam(BatchRequestsBinder.class) List<BatchRequest> requests);
+}
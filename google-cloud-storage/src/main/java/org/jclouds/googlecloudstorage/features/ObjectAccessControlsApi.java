@@ -33,14 +33,20 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.googlecloudstorage.binders.ObjectAccessControlsBatchBinder;
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
 import org.jclouds.googlecloudstorage.domain.ObjectAccessControls;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectAccessControlsTemplate;
+import org.jclouds.googlecloudstorage.parser.ParseToBatchResponses;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.oauth.v2.filters.OAuthFilter;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.MapBinder;
 import org.jclouds.rest.annotations.PATCH;
+import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.annotations.SelectJson;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
@@ -69,7 +75,7 @@ public interface ObjectAccessControlsApi {
 
    @Named("ObjectAccessControls:get")
    @GET
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    @Fallback(NullOnNotFoundOr404.class)
    @Nullable
    ObjectAccessControls getObjectAccessControls(@PathParam("bucket") String bucketName,
@@ -92,7 +98,7 @@ public interface ObjectAccessControlsApi {
     */
    @Named("ObjectAccessControls:get")
    @GET
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    @Fallback(NullOnNotFoundOr404.class)
    @Nullable
    ObjectAccessControls getObjectAccessControls(@PathParam("bucket") String bucketName,
@@ -113,7 +119,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:insert")
    @POST
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl")
    ObjectAccessControls createObjectAccessControls(@PathParam("bucket") String bucketName,
             @PathParam("object") @Encoded String objectName,
             @BinderParam(BindToJsonPayload.class) ObjectAccessControlsTemplate template);
@@ -134,7 +140,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:insert")
    @POST
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl")
    ObjectAccessControls createObjectAccessControls(@PathParam("bucket") String bucketName,
             @PathParam("object") @Encoded String objectName,
             @BinderParam(BindToJsonPayload.class) ObjectAccessControlsTemplate template,
@@ -153,7 +159,7 @@ public interface ObjectAccessControlsApi {
     */
    @Named("ObjectAccessControls:delete")
    @DELETE
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    void deleteObjectAccessControls(@PathParam("bucket") String bucketName,
          @PathParam("object") @Encoded String objectName, @PathParam("entity") String entity);
 
@@ -172,7 +178,7 @@ public interface ObjectAccessControlsApi {
     */
    @Named("ObjectAccessControls:delete")
    @DELETE
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    void deleteObjectAccessControls(@PathParam("bucket") String bucketName,
          @PathParam("object") @Encoded String objectName, @PathParam("entity") String entity,
          @QueryParam("generation") Long generation);
@@ -188,7 +194,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:list")
    @GET
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl")
    @SelectJson("items")
    @Fallback(NullOnNotFoundOr404.class)
    @Nullable
@@ -209,7 +215,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:list")
    @GET
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl")
    @SelectJson("items")
    @Fallback(NullOnNotFoundOr404.class)
    @Nullable
@@ -235,7 +241,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:update")
    @PUT
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    ObjectAccessControls updateObjectAccessControls(@PathParam("bucket") String bucketName,
             @PathParam("object") @Encoded String objectName, @PathParam("entity") String entity,
             @BinderParam(BindToJsonPayload.class) ObjectAccessControlsTemplate template);
@@ -260,7 +266,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:update")
    @PUT
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    ObjectAccessControls updateObjectAccessControls(@PathParam("bucket") String bucketName,
             @PathParam("object") @Encoded String objectName, @PathParam("entity") String entity,
             @BinderParam(BindToJsonPayload.class) ObjectAccessControlsTemplate template,
@@ -284,7 +290,7 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:patch")
    @PATCH
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    ObjectAccessControls patchObjectAccessControls(@PathParam("bucket") String bucketName,
             @PathParam("object") @Encoded String objectName, @PathParam("entity") String entity,
             @BinderParam(BindToJsonPayload.class) ObjectAccessControlsTemplate template);
@@ -309,9 +315,75 @@ public interface ObjectAccessControlsApi {
    @Named("ObjectAccessControls:patch")
    @PATCH
    @Produces(APPLICATION_JSON)
-   @Path("/b/{bucket}/o/{object}/acl/{entity}")
+   @Path("/storage/v1/b/{bucket}/o/{object}/acl/{entity}")
    ObjectAccessControls patchObjectAccessControls(@PathParam("bucket") String bucketName,
             @PathParam("object") @Encoded String objectName, @PathParam("entity") String entity,
             @BinderParam(BindToJsonPayload.class) ObjectAccessControlsTemplate template,
             @QueryParam("generation") Long generation);
+
+   /**
+    * Creates the same acl entry on each of the specified objects, with batch requests.
+    *
+    * @param bucketName
+    *           Name of the bucket which contains the objects
+    * @param objectNames
+    *           Unencoded names of at most {@value BatchApi#MAX_BATCH_SIZE} objects
+    * @param template
+    *           Supply an {@link ObjectAccessControlsTemplate}
+    *
+    * @return one response per object, in the order of {@code objectNames}
+    */
+   @Named("ObjectAccessControls:batchInsert")
+   @POST
+   @Path("/batch/storage/v1")
+   @MapBinder(ObjectAccessControlsBatchBinder.class)
+   @ResponseParser(ParseToBatchResponses.class)
+   List<BatchResponse> createObjectAccessControls(@PayloadParam("bucket") String bucketName,
+            @PayloadParam("objects") List<String> objectNames,
+            @PayloadParam("template") ObjectAccessControlsTemplate template);
+
+   /**
+    * Deletes the acl entry for the specified entity from each of the specified objects, with batch requests.
+    *
+    * @param bucketName
+    *           Name of the bucket which contains the objects
+    * @param objectNames
+    *           Unencoded names of at most {@value BatchApi#MAX_BATCH_SIZE} objects
+    * @param entity
+    *           The entity holding the permission. Can be user-userId, user-emailAddress, group-groupId,
+    *           group-emailAddress, allUsers, or allAuthenticatedUsers
+    *
+    * @return one response per object, in the order of {@code objectNames}
+    */
+   @Named("ObjectAccessControls:batchDelete")
+   @POST
+   @Path("/batch/storage/v1")
+   @MapBinder(ObjectAccessControlsBatchBinder.class)
+   @ResponseParser(ParseToBatchResponses.class)
+   List<BatchResponse> deleteObjectAccessControls(@PayloadParam("bucket") String bucketName,
+            @PayloadParam("objects") List<String> objectNames, @PayloadParam("entity") String entity);
+
+   /**
+    * Patches the acl entry for the specified entity on each of the specified objects, with batch requests.
+    *
+    * @param bucketName
+    *           Name of the bucket which contains the objects
+    * @param objectNames
+    *           Unencoded names of at most {@value BatchApi#MAX_BATCH_SIZE} objects
+    * @param entity
+    *           The entity holding the permission. Can be user-userId, user-emailAddress, group-groupId,
+    *           group-emailAddress, allUsers, or allAuthenticatedUsers
+    * @param template
+    *           Supply an {@link ObjectAccessControlsTemplate}
+    *
+    * @return one response per object, in the order of {@code objectNames}
+    */
+   @Named("ObjectAccessControls:batchPatch")
+   @POST
+   @Path("/batch/storage/v1")
+   @MapBinder(ObjectAccessControlsBatchBinder.class)
+   @ResponseParser(ParseToBatchResponses.class)
+   List<BatchResponse> patchObjectAccessControls(@PayloadParam("bucket") String bucketName,
+            @PayloadParam("objects") List<String> objectNames, @PayloadParam("entity") String entity,
+            @PayloadParam("template") ObjectAccessControlsTemplate template);
 }
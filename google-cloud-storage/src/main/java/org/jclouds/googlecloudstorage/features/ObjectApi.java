@@ -18,6 +18,8 @@ package org.jclouds.googlecloudstorage.features;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import java.util.Iterator;
+
 import javax.inject.Named;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -32,6 +34,9 @@ import javax.ws.rs.Produces;
 
 import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageFallbacks.EmptyIteratorOnNotFoundOr404;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageFallbacks.NullOnNotModified;
 import org.jclouds.googlecloudstorage.binders.MultipartUploadBinder;
 import org.jclouds.googlecloudstorage.binders.UploadBinder;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
@@ -47,7 +52,10 @@ import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
 import org.jclouds.googlecloudstorage.options.ListObjectOptions;
 import org.jclouds.googlecloudstorage.options.RewriteObjectOptions;
 import org.jclouds.googlecloudstorage.options.UpdateObjectOptions;
+import org.jclouds.googlecloudstorage.parser.ParseObjectListPage;
+import org.jclouds.googlecloudstorage.parser.ParseToBlob;
 import org.jclouds.googlecloudstorage.parser.ParseToPayloadEnclosing;
+import org.jclouds.googlecloudstorage.parser.ToIteratorOfObjects;
 import org.jclouds.http.options.HttpRequestOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadEnclosing;
@@ -61,6 +69,7 @@ import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.QueryParams;
 import org.jclouds.rest.annotations.RequestFilters;
 import org.jclouds.rest.annotations.ResponseParser;
+import org.jclouds.rest.annotations.Transform;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
 /**
@@ -170,6 +179,55 @@ public interface ObjectApi {
    PayloadEnclosing download(@PathParam("bucket") String bucketName, @PathParam("object") @Encoded String objectName,
          HttpRequestOptions options);
 
+   /**
+    * Retrieves an object along with its metadata in a single request. The metadata is reconstructed from the
+    * {@code x-goog-*} headers of the media response.
+    *
+    * @param bucketName
+    *           Name of the bucket in which the object resides
+    * @param objectName
+    *           Name of the object
+    * @param options
+    *           A class that implements {@link HttpRequestOptions}
+    *           such as {@link GetObjectOptions} with optional query parameters
+    *
+    * @return a {@link Blob} or null if the object does not exist
+    */
+   @Named("Object:get")
+   @GET
+   @QueryParams(keys = "alt", values = "media")
+   @Path("storage/v1/b/{bucket}/o/{object}")
+   @ResponseParser(ParseToBlob.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Nullable
+   Blob downloadBlob(@PathParam("bucket") String bucketName, @PathParam("object") @Encoded String objectName,
+         HttpRequestOptions options);
+
+   /**
+    * Retrieves an object along with its metadata unless a precondition such as
+    * {@link GetObjectOptions#ifGenerationNotMatch} says the caller already has it.
+    *
+    * @param bucketName
+    *           Name of the bucket in which the object resides
+    * @param objectName
+    *           Name of the object
+    * @param options
+    *           {@link GetObjectOptions} with the precondition
+    *
+    * @return a {@link Blob}, or null if the service answers 304 Not Modified
+    * @throws org.jclouds.rest.ResourceNotFoundException
+    *            if the object does not exist
+    */
+   @Named("Object:get")
+   @GET
+   @QueryParams(keys = "alt", values = "media")
+   @Path("storage/v1/b/{bucket}/o/{object}")
+   @ResponseParser(ParseToBlob.class)
+   @Fallback(NullOnNotModified.class)
+   @Nullable
+   Blob downloadBlobIfModified(@PathParam("bucket") String bucketName,
+         @PathParam("object") @Encoded String objectName, HttpRequestOptions options);
+
    /**
     * Stores a new object. Object metadata setting is not supported with simple uploads
     *
@@ -253,6 +311,43 @@ public interface ObjectApi {
    @Fallback(NullOnNotFoundOr404.class)
    ListPageWithPrefixes<GoogleCloudStorageObject> listObjects(@PathParam("bucket") String bucketName, ListObjectOptions options);
 
+   /**
+    * Iterates over every object matching the criteria, following page tokens as the iterator advances. The next page
+    * is fetched in the background while the current one is consumed.
+    *
+    * @param bucketName
+    *           Name of the bucket in which to look for objects.
+    * @return an iterator over the objects; empty if the bucket does not exist
+    */
+   @Named("Object:list")
+   @GET
+   @Consumes(APPLICATION_JSON)
+   @Path("storage/v1/b/{bucket}/o")
+   @ResponseParser(ParseObjectListPage.class)
+   @Transform(ToIteratorOfObjects.class)
+   @Fallback(EmptyIteratorOnNotFoundOr404.class)
+   Iterator<GoogleCloudStorageObject> listObjectsAll(@PathParam("bucket") String bucketName);
+
+   /**
+    * Iterates over every object matching the criteria, following page tokens as the iterator advances. The next page
+    * is fetched in the background while the current one is consumed.
+    *
+    * @param bucketName
+    *           Name of the bucket in which to look for objects.
+    * @param options
+    *          Supply {@link ListObjectOptions}; a page token selects the first page and max results the page size
+    * @return an iterator over the objects; empty if the bucket does not exist
+    */
+   @Named("Object:list")
+   @GET
+   @Consumes(APPLICATION_JSON)
+   @Path("storage/v1/b/{bucket}/o")
+   @ResponseParser(ParseObjectListPage.class)
+   @Transform(ToIteratorOfObjects.class)
+   @Fallback(EmptyIteratorOnNotFoundOr404.class)
+   Iterator<GoogleCloudStorageObject> listObjectsAll(@PathParam("bucket") String bucketName,
+            ListObjectOptions options);
+
    /**
     * Updates an object metadata
     *
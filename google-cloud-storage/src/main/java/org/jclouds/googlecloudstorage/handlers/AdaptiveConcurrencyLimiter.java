@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.handlers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.ADAPTIVE_CONCURRENCY_LIMIT;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Limits the concurrent requests the blobstore issues to each bucket, adapting the limit to the service's signals:
+ * every rate limit (429) or unavailable (503) response halves the bucket's limit, and every completed request raises
+ * it by the reciprocal of the limit, so it grows back by about one per round of requests up to
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#ADAPTIVE_CONCURRENCY_LIMIT}. Several
+ * throttled responses to one burst only halve the limit once. Callers over the limit wait rather than fail.
+ */
+@Singleton
+public final class AdaptiveConcurrencyLimiter {
+
+   /** Throttling signals closer together than this are treated as one. */
+   private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private final int maxLimit;
+   private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<String, Limit>();
+
+   @Inject AdaptiveConcurrencyLimiter(@Named(ADAPTIVE_CONCURRENCY_LIMIT) int maxLimit) {
+      checkArgument(maxLimit >= 0, "%s must not be negative", ADAPTIVE_CONCURRENCY_LIMIT);
+      this.maxLimit = maxLimit;
+   }
+
+   public boolean isEnabled() {
+      return maxLimit > 0;
+   }
+
+   /** Waits until a request to the bucket is within its limit; every call must be followed by {@link #release}. */
+   public void acquire(String bucket) throws InterruptedException {
+      if (isEnabled()) {
+         limit(bucket).acquire();
+      }
+   }
+
+   public void release(String bucket) {
+      if (isEnabled()) {
+         limit(bucket).release();
+      }
+   }
+
+   /** Records a rate limit or unavailable response from the bucket. */
+   public void onThrottled(String bucket) {
+      if (isEnabled()) {
+         limit(bucket).decrease();
+      }
+   }
+
+   /** Returns the current limit of concurrent requests to the bucket. */
+   public int getLimit(String bucket) {
+      return isEnabled() ? limit(bucket).current() : Integer.MAX_VALUE;
+   }
+
+   private Limit limit(String bucket) {
+      Limit limit = limits.get(bucket);
+      if (limit == null) {
+         Limit created = new Limit(maxLimit);
+         limit = limits.putIfAbsent(bucket, created);
+         if (limit == null) {
+            limit = created;
+         }
+      }
+      return limit;
+   }
+
+   private static final class Limit {
+      private final int max;
+      private double limit;
+      private int inFlight;
+      private long lastDecrease;
+      private boolean decreased;
+
+      Limit(int max) {
+         this.max = max;
+         this.limit = max;
+      }
+
+      synchronized void acquire() throws InterruptedException {
+         while (inFlight >= (int) limit) {
+            wait();
+         }
+         inFlight++;
+      }
+
+      synchronized void release() {
+         inFlight--;
+         limit = Math.min(max, limit + 1 / limit);
+         notifyAll();
+      }
+
+      synchronized void decrease() {
+         long now = System.nanoTime();
+         if (!decreased || now - lastDecrease >= DECREASE_INTERVAL_NANOS) {
+            limit = Math.max(1, limit / 2);
+            lastDecrease = now;
+            decreased = true;
+         }
+      }
+
+      synchronized int current() {
+         return (int) limit;
+      }
+   }
+}
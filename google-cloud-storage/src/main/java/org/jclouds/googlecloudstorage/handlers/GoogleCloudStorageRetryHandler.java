@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.handlers;
+
+import static org.jclouds.http.HttpUtils.releasePayload;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.date.DateService;
+import org.jclouds.googlecloudstorage.metrics.MetricsSink;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpRetryHandler;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.net.HttpHeaders;
+import com.google.common.primitives.Longs;
+
+/**
+ * Retries rate limited (429) and server error (5xx) responses with exponential backoff and full jitter, waiting at
+ * least as long as a {@code Retry-After} header asks. 429 and 503 responses also lower the
+ * {@link AdaptiveConcurrencyLimiter adaptive concurrency limit} of the bucket. Retries are reported to the
+ * {@link MetricsSink}.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/retry-strategy"/>
+ */
+@Singleton
+public final class GoogleCloudStorageRetryHandler implements HttpRetryHandler {
+
+   /** The longest backoff between attempts, as recommended by the retry strategy. */
+   static final long MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(32);
+   /** The longest {@code Retry-After} honoured, so that a bogus value cannot stall a caller indefinitely. */
+   static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final AdaptiveConcurrencyLimiter limiter;
+   private final DateService dateService;
+   private final int retryCountLimit;
+   private final long delayStart;
+   private final MetricsSink metrics;
+   private final Random random = new Random();
+
+   @Inject GoogleCloudStorageRetryHandler(AdaptiveConcurrencyLimiter limiter, DateService dateService,
+         @Named(Constants.PROPERTY_MAX_RETRIES) int retryCountLimit,
+         @Named(Constants.PROPERTY_RETRY_DELAY_START) long delayStart, MetricsSink metrics) {
+      this.limiter = limiter;
+      this.dateService = dateService;
+      this.retryCountLimit = retryCountLimit;
+      this.delayStart = delayStart;
+      this.metrics = metrics;
+   }
+
+   @Override
+   public boolean shouldRetryRequest(HttpCommand command, HttpResponse response) {
+      int status = response.getStatusCode();
+      if (status != 429 && status < 500) {
+         return false;
+      }
+      String bucket = bucket(command.getCurrentRequest().getEndpoint().getRawPath());
+      if (status == 429 || status == 503) {
+         limiter.onThrottled(bucket);
+      }
+      command.incrementFailureCount();
+      if (!command.isReplayable()) {
+         logger.error("Cannot retry after %s, command is not replayable: %s", status, command);
+         return false;
+      } else if (command.getFailureCount() > retryCountLimit) {
+         logger.error("Cannot retry after %s, command has exceeded retry limit %d: %s", status, retryCountLimit,
+               command);
+         return false;
+      }
+      long delay = Math.max(backoff(command.getFailureCount()),
+            retryAfter(response.getFirstHeaderOrNull(HttpHeaders.RETRY_AFTER), System.currentTimeMillis()));
+      logger.debug("Retrying %s after %s in %d ms", command, status, delay);
+      metrics.recordRetry(operation(command.getCurrentRequest()), bucket, status);
+      releasePayload(response);
+      try {
+         Thread.sleep(delay);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return false;
+      }
+      return true;
+   }
+
+   /** Returns a random delay of up to {@code delayStart * 2^(failures - 1)} milliseconds, capped. */
+   private long backoff(int failures) {
+      long ceiling = delayStart << Math.min(failures - 1, 30);
+      if (ceiling <= 0 || ceiling > MAX_DELAY_MILLIS) {
+         ceiling = MAX_DELAY_MILLIS;
+      }
+      return (long) (random.nextDouble() * ceiling);
+   }
+
+   /** Parses a {@code Retry-After} of either delay seconds or an HTTP date into milliseconds from now. */
+   @VisibleForTesting
+   long retryAfter(String header, long now) {
+      if (header == null) {
+         return 0;
+      }
+      Long seconds = Longs.tryParse(header.trim());
+      long millis;
+      if (seconds != null) {
+         millis = TimeUnit.SECONDS.toMillis(seconds);
+      } else {
+         try {
+            millis = dateService.rfc822DateParse(header.trim()).getTime() - now;
+         } catch (IllegalArgumentException e) {
+            millis = 0;
+         }
+      }
+      return Math.max(0, Math.min(millis, MAX_RETRY_AFTER_MILLIS));
+   }
+
+   /** Returns the {@link Named} name of the api method that generated the request, or "" for none. */
+   private static String operation(HttpRequest request) {
+      if (request instanceof GeneratedHttpRequest) {
+         Named named = ((GeneratedHttpRequest) request).getInvocation().getInvokable().getAnnotation(Named.class);
+         if (named != null) {
+            return named.value();
+         }
+      }
+      return "";
+   }
+
+   /** Returns the bucket named by a JSON API path such as {@code /storage/v1/b/bucket/o/name}, or "" for none. */
+   @VisibleForTesting
+   static String bucket(String path) {
+      int start = path.indexOf("/b/");
+      if (start == -1) {
+         return "";
+      }
+      start += 3;
+      int end = path.indexOf('/', start);
+      return end == -1 ? path.substring(start) : path.substring(start, end);
+   }
+}
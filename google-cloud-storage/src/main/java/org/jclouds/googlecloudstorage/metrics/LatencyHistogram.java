@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in microseconds. Values are counted in logarithmic buckets with four
+ * sub-buckets per power of two, so percentiles are reported at most 25% above the recorded value while recording
+ * is a single atomic increment.
+ */
+public final class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 2;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int BUCKETS = (Long.SIZE + 1) * SUB_BUCKETS;
+
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+   public void record(long duration, TimeUnit unit) {
+      counts.incrementAndGet(index(Math.max(0, unit.toMicros(duration))));
+   }
+
+   /** Returns the number of recorded values. */
+   public long count() {
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         count += counts.get(i);
+      }
+      return count;
+   }
+
+   /**
+    * Returns an upper bound of the given percentile of the recorded values, in microseconds, or zero if none are
+    * recorded. Concurrent recording may or may not be reflected.
+    *
+    * @param percentile
+    *           between 0 and 1
+    */
+   public long percentile(double percentile) {
+      checkArgument(percentile >= 0 && percentile <= 1, "percentile must be between 0 and 1");
+      long[] snapshot = new long[BUCKETS];
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         snapshot[i] = counts.get(i);
+         count += snapshot[i];
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile * count));
+      for (int i = 0; i < BUCKETS; i++) {
+         rank -= snapshot[i];
+         if (rank <= 0) {
+            return upperBound(i);
+         }
+      }
+      return 0;
+   }
+
+   /** Halves every count, so that older values weigh less than recent ones. */
+   public void decay() {
+      for (int i = 0; i < BUCKETS; i++) {
+         long count = counts.get(i);
+         if (count > 0) {
+            counts.addAndGet(i, -(count - count / 2));
+         }
+      }
+   }
+
+   /** Returns the values recorded by both histograms; neither is modified. */
+   public LatencyHistogram merge(LatencyHistogram other) {
+      LatencyHistogram merged = new LatencyHistogram();
+      for (int i = 0; i < BUCKETS; i++) {
+         merged.counts.set(i, counts.get(i) + other.counts.get(i));
+      }
+      return merged;
+   }
+
+   static int index(long micros) {
+      if (micros < SUB_BUCKETS) {
+         return (int) micros;
+      }
+      int exponent = Long.SIZE - Long.numberOfLeadingZeros(micros) - 1;
+      int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   }
+
+   static long upperBound(int index) {
+      if (index < SUB_BUCKETS) {
+         return index;
+      }
+      int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      long subBucket = index % SUB_BUCKETS;
+      long lower = (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+      return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+   }
+}
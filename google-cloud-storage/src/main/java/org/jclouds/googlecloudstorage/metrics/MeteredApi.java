@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.PathParam;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.jclouds.Fallbacks.FalseOnNotFoundOr404;
+import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.blobstore.BlobStoreFallbacks.NullOnKeyAlreadyExists;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageFallbacks.NullOnBucketAlreadyExists;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageFallbacks.NullOnNotModified;
+import org.jclouds.googlecloudstorage.features.ObjectApi;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.io.Payloads;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.Fallback;
+
+import com.google.common.base.Throwables;
+import com.google.common.reflect.Invokable;
+import com.google.common.reflect.Parameter;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+
+/**
+ * Reports every call to a feature API of the {@link org.jclouds.googlecloudstorage.GoogleCloudStorageApi} to the
+ * bound {@link MetricsSink}, under the operation's {@link Named} name and the bucket it addresses. It intercepts
+ * jclouds' {@link org.jclouds.rest.internal.InvokeHttpMethod}, so every caller of the api is metered without asking
+ * for it.
+ * <p>
+ * Calls are timed around the whole exchange, retries included, which is the latency a caller sees. A call that
+ * returns a payload, such as a download, is timed until the payload is closed or released, and reports the bytes
+ * read from it.
+ * <p>
+ * A result that a fallback substituted for an error response is recorded with that response's status, for example
+ * 404 for an absent object. Listing all objects records the first page only.
+ */
+public final class MeteredApi implements MethodInterceptor {
+
+   /** Matches {@code apply(Invocation)}, the method through which every api call is sent. */
+   public static final Matcher<Method> APPLY = new AbstractMatcher<Method>() {
+      @Override
+      public boolean matches(Method method) {
+         return method.getName().equals("apply") && !method.isBridge() && method.getParameterTypes().length == 1
+               && method.getParameterTypes()[0] == Invocation.class;
+      }
+   };
+
+   private volatile MetricsSink sink;
+
+   @Inject
+   void setSink(MetricsSink sink) {
+      this.sink = sink;
+   }
+
+   @Override
+   public Object invoke(MethodInvocation call) throws Throwable {
+      MetricsSink sink = this.sink;
+      Invocation invocation = (Invocation) call.getArguments()[0];
+      Invokable<?, ?> invokable = invocation.getInvokable();
+      Named named = invokable.getAnnotation(Named.class);
+      // the feature apis all live in one package; other apis, such as OAuth's, are not reported
+      if (sink == null || sink == MetricsSink.NULL || named == null
+            || invokable.getOwnerType().getRawType().getPackage() != ObjectApi.class.getPackage()) {
+         return call.proceed();
+      }
+      String operation = named.value();
+      String bucket = bucket(invokable, invocation.getArgs());
+      long bytesSent = bytesSent(invocation.getArgs());
+      long start = System.nanoTime();
+      Object result;
+      try {
+         result = call.proceed();
+      } catch (Throwable t) {
+         sink.recordOperation(operation, bucket, status(t), System.nanoTime() - start, bytesSent, 0);
+         throw t;
+      }
+      Payload payload = result instanceof PayloadEnclosing ? ((PayloadEnclosing) result).getPayload() : null;
+      if (payload == null) {
+         sink.recordOperation(operation, bucket, status(invokable, result), System.nanoTime() - start, bytesSent, 0);
+         return result;
+      }
+      MeteredStream stream;
+      try {
+         stream = new MeteredStream(payload.openStream(), sink, operation, bucket, start, bytesSent);
+      } catch (IOException e) {
+         sink.recordOperation(operation, bucket, 200, System.nanoTime() - start, bytesSent, 0);
+         return result;
+      }
+      Payload metered = Payloads.newInputStreamPayload(stream);
+      metered.setContentMetadata(payload.getContentMetadata());
+      ((PayloadEnclosing) result).setPayload(metered);
+      return result;
+   }
+
+   /** Counts the bytes read from a downloaded payload and records the operation when it is closed. */
+   private static final class MeteredStream extends FilterInputStream {
+      private final MetricsSink sink;
+      private final String operation;
+      private final String bucket;
+      private final long start;
+      private final long bytesSent;
+      private final AtomicBoolean closed = new AtomicBoolean();
+      private long bytesReceived;
+
+      MeteredStream(InputStream in, MetricsSink sink, String operation, String bucket, long start, long bytesSent) {
+         super(in);
+         this.sink = sink;
+         this.operation = operation;
+         this.bucket = bucket;
+         this.start = start;
+         this.bytesSent = bytesSent;
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = in.read();
+         if (b != -1) {
+            bytesReceived++;
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int read = in.read(b, off, len);
+         if (read != -1) {
+            bytesReceived += read;
+         }
+         return read;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         long skipped = in.skip(n);
+         bytesReceived += skipped;
+         return skipped;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            in.close();
+         } finally {
+            if (closed.compareAndSet(false, true)) {
+               sink.recordOperation(operation, bucket, 200, System.nanoTime() - start, bytesSent, bytesReceived);
+            }
+         }
+      }
+   }
+
+   /** Returns the value of the bucket parameter, or of the destination bucket for copies. */
+   private static String bucket(Invokable<?, ?> invokable, List<Object> args) {
+      String destination = "";
+      List<Parameter> parameters = invokable.getParameters();
+      for (int i = 0; i < parameters.size() && i < args.size(); i++) {
+         PathParam path = parameters.get(i).getAnnotation(PathParam.class);
+         if (path != null && args.get(i) != null) {
+            if (path.value().equals("bucket")) {
+               return args.get(i).toString();
+            } else if (path.value().equals("destinationBucket")) {
+               destination = args.get(i).toString();
+            }
+         }
+      }
+      return destination;
+   }
+
+   private static long bytesSent(List<Object> args) {
+      long bytes = 0;
+      for (Object arg : args) {
+         if (arg instanceof Payload) {
+            Long length = ((Payload) arg).getContentMetadata().getContentLength();
+            bytes += length == null ? 0 : length;
+         }
+      }
+      return bytes;
+   }
+
+   private static int status(Invokable<?, ?> invokable, Object result) {
+      if (result == null || Boolean.FALSE.equals(result)) {
+         Fallback fallback = invokable.getAnnotation(Fallback.class);
+         if (fallback != null) {
+            Class<?> type = fallback.value();
+            if (type == NullOnNotFoundOr404.class || type == FalseOnNotFoundOr404.class) {
+               return 404;
+            } else if (type == NullOnKeyAlreadyExists.class || type == NullOnBucketAlreadyExists.class) {
+               return 409;
+            } else if (type == NullOnNotModified.class) {
+               return 304;
+            }
+         }
+      }
+      return 200;
+   }
+
+   private static int status(Throwable t) {
+      for (Throwable cause : Throwables.getCausalChain(t)) {
+         if (cause instanceof HttpResponseException && ((HttpResponseException) cause).getResponse() != null) {
+            return ((HttpResponseException) cause).getResponse().getStatusCode();
+         }
+      }
+      return 0;
+   }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import com.google.inject.ProvidedBy;
+
+/**
+ * Receives a measurement of every API operation, keyed by the operation's {@link javax.inject.Named} name such as
+ * {@code Object:get} and by bucket. Bind an implementation in a module passed to the context builder to export the
+ * measurements. Otherwise they are kept in {@link OperationMetrics} when
+ * {@link org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants#METRICS_ENABLED} is set, and dropped by
+ * {@link #NULL} when it is not. Implementations are called concurrently from every thread that issues requests and
+ * must not block.
+ */
+@ProvidedBy(MetricsSinkProvider.class)
+public interface MetricsSink {
+
+   /** Drops every measurement. */
+   MetricsSink NULL = new MetricsSink() {
+      @Override
+      public void recordOperation(String operation, String bucket, int status, long latencyNanos, long bytesSent,
+            long bytesReceived) {
+      }
+
+      @Override
+      public void recordRetry(String operation, String bucket, int status) {
+      }
+
+      @Override
+      public String toString() {
+         return "NULL";
+      }
+   };
+
+   /**
+    * Records a completed operation, including its retries.
+    *
+    * @param bucket
+    *           the bucket the operation addressed, or "" for none
+    * @param status
+    *           the final HTTP status; 200 for any success, or 0 if no response was received
+    * @param latencyNanos
+    *           the time from the call to its return, or to the closing of the payload it returned, in nanoseconds
+    * @param bytesSent
+    *           the length of the uploaded payload, if any
+    * @param bytesReceived
+    *           the bytes read from the downloaded payload before it was closed, if any
+    */
+   void recordOperation(String operation, String bucket, int status, long latencyNanos, long bytesSent,
+         long bytesReceived);
+
+   /** Records a response that was retried. */
+   void recordRetry(String operation, String bucket, int status);
+}
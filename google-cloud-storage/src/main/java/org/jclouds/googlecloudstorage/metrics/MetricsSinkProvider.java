@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METRICS_ENABLED;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+/** Provides the {@link MetricsSink} used when no other is bound. */
+final class MetricsSinkProvider implements Provider<MetricsSink> {
+
+   private final boolean enabled;
+   private final Provider<OperationMetrics> metrics;
+
+   @Inject MetricsSinkProvider(@Named(METRICS_ENABLED) boolean enabled, Provider<OperationMetrics> metrics) {
+      this.enabled = enabled;
+      this.metrics = metrics;
+   }
+
+   @Override
+   public MetricsSink get() {
+      return enabled ? metrics.get() : MetricsSink.NULL;
+   }
+}
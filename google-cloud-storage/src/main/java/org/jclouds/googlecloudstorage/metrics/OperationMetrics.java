@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the measurements of each operation and bucket in memory: a latency histogram and counts of calls, bytes,
+ * statuses and retries. Recording is lock-free.
+ */
+@Singleton
+public final class OperationMetrics implements MetricsSink {
+
+   private final ConcurrentMap<Key, Stats> stats = new ConcurrentHashMap<Key, Stats>();
+
+   @Override
+   public void recordOperation(String operation, String bucket, int status, long latencyNanos, long bytesSent,
+         long bytesReceived) {
+      Stats stats = stats(operation, bucket);
+      stats.latencies.record(latencyNanos, TimeUnit.NANOSECONDS);
+      stats.bytesSent.addAndGet(bytesSent);
+      stats.bytesReceived.addAndGet(bytesReceived);
+      stats.status(status).incrementAndGet();
+   }
+
+   @Override
+   public void recordRetry(String operation, String bucket, int status) {
+      stats(operation, bucket).retries.incrementAndGet();
+   }
+
+   /** Returns the measurements of the operation on the bucket, all zero if it has not been called. */
+   public Stats getStats(String operation, String bucket) {
+      Stats found = stats.get(new Key(operation, bucket));
+      return found != null ? found : new Stats();
+   }
+
+   /** Returns the measurements of every operation and bucket, keyed by operation and then bucket. */
+   public Map<String, Map<String, Stats>> getAllStats() {
+      Map<String, ImmutableMap.Builder<String, Stats>> byOperation = Maps.newTreeMap();
+      for (Map.Entry<Key, Stats> entry : stats.entrySet()) {
+         ImmutableMap.Builder<String, Stats> byBucket = byOperation.get(entry.getKey().operation);
+         if (byBucket == null) {
+            byBucket = ImmutableMap.builder();
+            byOperation.put(entry.getKey().operation, byBucket);
+         }
+         byBucket.put(entry.getKey().bucket, entry.getValue());
+      }
+      ImmutableMap.Builder<String, Map<String, Stats>> all = ImmutableMap.builder();
+      for (Map.Entry<String, ImmutableMap.Builder<String, Stats>> entry : byOperation.entrySet()) {
+         all.put(entry.getKey(), entry.getValue().build());
+      }
+      return all.build();
+   }
+
+   private Stats stats(String operation, String bucket) {
+      Key key = new Key(operation, bucket);
+      Stats found = stats.get(key);
+      if (found == null) {
+         Stats created = new Stats();
+         found = stats.putIfAbsent(key, created);
+         if (found == null) {
+            found = created;
+         }
+      }
+      return found;
+   }
+
+   /** The live measurements of one operation on one bucket. */
+   public static final class Stats {
+      private final LatencyHistogram latencies = new LatencyHistogram();
+      private final AtomicLong bytesSent = new AtomicLong();
+      private final AtomicLong bytesReceived = new AtomicLong();
+      private final AtomicLong retries = new AtomicLong();
+      private final ConcurrentMap<Integer, AtomicLong> statuses = new ConcurrentHashMap<Integer, AtomicLong>();
+
+      public LatencyHistogram getLatencies() {
+         return latencies;
+      }
+
+      public long getCount() {
+         return latencies.count();
+      }
+
+      public long getBytesSent() {
+         return bytesSent.get();
+      }
+
+      public long getBytesReceived() {
+         return bytesReceived.get();
+      }
+
+      public long getRetries() {
+         return retries.get();
+      }
+
+      /** Returns the number of calls that ended with each status. */
+      public Map<Integer, Long> getStatuses() {
+         ImmutableMap.Builder<Integer, Long> counts = ImmutableMap.builder();
+         for (Map.Entry<Integer, AtomicLong> entry : statuses.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+         }
+         return counts.build();
+      }
+
+      private AtomicLong status(int status) {
+         AtomicLong count = statuses.get(status);
+         if (count == null) {
+            AtomicLong created = new AtomicLong();
+            count = statuses.putIfAbsent(status, created);
+            if (count == null) {
+               count = created;
+            }
+         }
+         return count;
+      }
+   }
+
+   private static final class Key {
+      private final String operation;
+      private final String bucket;
+
+      Key(String operation, String bucket) {
+         this.operation = operation;
+         this.bucket = bucket;
+      }
+
+      @Override
+      public boolean equals(Object object) {
+         if (!(object instanceof Key)) {
+            return false;
+         }
+         Key that = (Key) object;
+         return operation.equals(that.operation) && bucket.equals(that.bucket);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * operation.hashCode() + bucket.hashCode();
+      }
+   }
+}
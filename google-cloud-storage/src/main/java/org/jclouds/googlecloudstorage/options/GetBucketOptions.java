@@ -18,11 +18,15 @@ package org.jclouds.googlecloudstorage.options;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Arrays;
+
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.BucketField;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.Projection;
 import org.jclouds.http.options.BaseHttpRequestOptions;
 
 /**
- * Allows to optionally specify ifMetagenerationMatch,ifMetagenerationNotMatch and projection which used in Bucket
+ * Allows to optionally specify ifMetagenerationMatch,ifMetagenerationNotMatch, projection and fields which used in
+ * Bucket
  */
 public class GetBucketOptions extends BaseHttpRequestOptions {
 
@@ -43,6 +47,20 @@ public class GetBucketOptions extends BaseHttpRequestOptions {
       return this;
    }
 
+   /**
+    * Restricts the returned bucket to the given fields and those in {@link BucketField#REQUIRED}.
+    *
+    * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/performance#partial-response"/>
+    */
+   public GetBucketOptions fields(Iterable<BucketField> fields) {
+      this.queryParameters.put("fields", BucketField.selector(checkNotNull(fields, "fields")));
+      return this;
+   }
+
+   public GetBucketOptions fields(BucketField... fields) {
+      return fields(Arrays.asList(fields));
+   }
+
    public static class Builder {
 
       public GetBucketOptions ifMetagenerationMatch(Long ifMetagenerationMatch) {
@@ -57,5 +75,12 @@ public class GetBucketOptions extends BaseHttpRequestOptions {
          return new GetBucketOptions().projection(projection);
       }
 
+      public GetBucketOptions fields(Iterable<BucketField> fields) {
+         return new GetBucketOptions().fields(fields);
+      }
+
+      public GetBucketOptions fields(BucketField... fields) {
+         return new GetBucketOptions().fields(fields);
+      }
    }
 }
@@ -18,12 +18,15 @@ package org.jclouds.googlecloudstorage.options;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Arrays;
+
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.Projection;
 import org.jclouds.http.options.GetOptions;
 
 /**
  * Allows to optionally specify generation, ifGenerationMatch, ifGenerationNotMatch, ifMetagenerationMatch,
- * ifMetagenerationNotMatch and projection, in addition to the values in {@link GetOptions}.
+ * ifMetagenerationNotMatch, projection and fields, in addition to the values in {@link GetOptions}.
  */
 public class GetObjectOptions extends GetOptions {
 
@@ -59,6 +62,20 @@ public class GetObjectOptions extends GetOptions {
       return this;
    }
 
+   /**
+    * Restricts the returned object to the given fields and those in {@link ObjectField#REQUIRED}.
+    *
+    * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/performance#partial-response"/>
+    */
+   public GetObjectOptions fields(Iterable<ObjectField> fields) {
+      this.queryParameters.put("fields", ObjectField.selector(checkNotNull(fields, "fields")));
+      return this;
+   }
+
+   public GetObjectOptions fields(ObjectField... fields) {
+      return fields(Arrays.asList(fields));
+   }
+
    public static class Builder {
 
       public GetObjectOptions ifGenerationMatch(Long ifGenerationMatch) {
@@ -84,5 +101,13 @@ public class GetObjectOptions extends GetOptions {
       public GetObjectOptions projection(Projection projection) {
          return new GetObjectOptions().projection(projection);
       }
+
+      public GetObjectOptions fields(Iterable<ObjectField> fields) {
+         return new GetObjectOptions().fields(fields);
+      }
+
+      public GetObjectOptions fields(ObjectField... fields) {
+         return new GetObjectOptions().fields(fields);
+      }
    }
 }
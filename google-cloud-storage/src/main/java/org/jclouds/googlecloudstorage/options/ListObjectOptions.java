@@ -18,9 +18,14 @@ package org.jclouds.googlecloudstorage.options;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Arrays;
+
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.Projection;
 import org.jclouds.http.options.BaseHttpRequestOptions;
 
+import com.google.common.collect.ImmutableSet;
+
 public class ListObjectOptions extends BaseHttpRequestOptions {
 
    public ListObjectOptions delimiter(String delimiter) {
@@ -39,7 +44,7 @@ public class ListObjectOptions extends BaseHttpRequestOptions {
    }
 
    public ListObjectOptions pageToken(String pageToken) {
-      this.queryParameters.put("pageToken", checkNotNull(pageToken, "pageToken"));
+      this.queryParameters.replaceValues("pageToken", ImmutableSet.of(checkNotNull(pageToken, "pageToken")));
       return this;
    }
 
@@ -53,6 +58,35 @@ public class ListObjectOptions extends BaseHttpRequestOptions {
       return this;
    }
 
+   /**
+    * Restricts the response to the given fields, for example {@code nextPageToken,items(name,size)}.
+    *
+    * @see <a href="https://cloud.google.com/storage/docs/json_api/v1/how-tos/performance#partial-response"/>
+    */
+   public ListObjectOptions fields(String fields) {
+      this.queryParameters.replaceValues("fields", ImmutableSet.of(checkNotNull(fields, "fields")));
+      return this;
+   }
+
+   /**
+    * Restricts each listed object to the given fields and those in {@link ObjectField#REQUIRED}. The page token and
+    * prefixes are always returned.
+    */
+   public ListObjectOptions fields(Iterable<ObjectField> fields) {
+      return fields("nextPageToken,prefixes,items(" + ObjectField.selector(checkNotNull(fields, "fields")) + ")");
+   }
+
+   public ListObjectOptions fields(ObjectField... fields) {
+      return fields(Arrays.asList(fields));
+   }
+
+   /** Returns independent options with the same query parameters, for requesting further pages. */
+   public ListObjectOptions copy() {
+      ListObjectOptions copy = new ListObjectOptions();
+      copy.queryParameters.putAll(queryParameters);
+      return copy;
+   }
+
    public static class Builder {
 
       public ListObjectOptions delimiter(String delimiter) {
@@ -78,5 +112,17 @@ public class ListObjectOptions extends BaseHttpRequestOptions {
       public ListObjectOptions projection(Projection projection) {
          return new ListObjectOptions().projection(projection);
       }
+
+      public ListObjectOptions fields(String fields) {
+         return new ListObjectOptions().fields(fields);
+      }
+
+      public ListObjectOptions fields(Iterable<ObjectField> fields) {
+         return new ListObjectOptions().fields(fields);
+      }
+
+      public ListObjectOptions fields(ObjectField... fields) {
+         return new ListObjectOptions().fields(fields);
+      }
    }
 }
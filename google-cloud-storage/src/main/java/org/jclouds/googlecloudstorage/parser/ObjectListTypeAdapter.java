@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads an objects.list response token by token into a {@link ListPageWithPrefixes}, building its lists in a single
+ * pass. Unknown properties, such as {@code kind}, are skipped.
+ */
+public final class ObjectListTypeAdapter extends TypeAdapter<ListPageWithPrefixes<GoogleCloudStorageObject>> {
+
+   /** Creates the adapter for {@code ListPageWithPrefixes<GoogleCloudStorageObject>} only. */
+   public static final class Factory implements TypeAdapterFactory {
+      @SuppressWarnings("unchecked")
+      @Override
+      public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+         if (type.getRawType() != ListPageWithPrefixes.class || !(type.getType() instanceof ParameterizedType)) {
+            return null;
+         }
+         Type item = ((ParameterizedType) type.getType()).getActualTypeArguments()[0];
+         if (item != GoogleCloudStorageObject.class) {
+            return null;
+         }
+         return (TypeAdapter<T>) new ObjectListTypeAdapter(gson.getAdapter(GoogleCloudStorageObject.class));
+      }
+   }
+
+   private final TypeAdapter<GoogleCloudStorageObject> objectAdapter;
+
+   public ObjectListTypeAdapter(TypeAdapter<GoogleCloudStorageObject> objectAdapter) {
+      this.objectAdapter = objectAdapter;
+   }
+
+   @Override
+   public ListPageWithPrefixes<GoogleCloudStorageObject> read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+         in.nextNull();
+         return null;
+      }
+      ImmutableList.Builder<GoogleCloudStorageObject> items = ImmutableList.builder();
+      ImmutableList.Builder<String> prefixes = ImmutableList.builder();
+      String nextPageToken = null;
+      in.beginObject();
+      while (in.hasNext()) {
+         String name = in.nextName();
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+         } else if (name.equals("items")) {
+            in.beginArray();
+            while (in.hasNext()) {
+               items.add(objectAdapter.read(in));
+            }
+            in.endArray();
+         } else if (name.equals("prefixes")) {
+            in.beginArray();
+            while (in.hasNext()) {
+               prefixes.add(in.nextString());
+            }
+            in.endArray();
+         } else if (name.equals("nextPageToken")) {
+            nextPageToken = in.nextString();
+         } else {
+            in.skipValue();
+         }
+      }
+      in.endObject();
+      return ListPageWithPrefixes.create(items.build(), nextPageToken, prefixes.build());
+   }
+
+   @Override
+   public void write(JsonWriter out, ListPageWithPrefixes<GoogleCloudStorageObject> page) throws IOException {
+      if (page == null) {
+         out.nullValue();
+         return;
+      }
+      out.beginObject();
+      if (page.nextPageToken() != null) {
+         out.name("nextPageToken").value(page.nextPageToken());
+      }
+      out.name("prefixes").beginArray();
+      for (String prefix : page.prefixes()) {
+         out.value(prefix);
+      }
+      out.endArray();
+      out.name("items").beginArray();
+      for (GoogleCloudStorageObject object : page) {
+         objectAdapter.write(out, object);
+      }
+      out.endArray();
+      out.endObject();
+   }
+}
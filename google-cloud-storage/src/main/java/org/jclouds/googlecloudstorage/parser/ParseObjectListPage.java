@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.json.Json;
+
+import com.google.inject.TypeLiteral;
+
+/** Parses one page of an object listing, for methods whose return type is not the page itself. */
+@Singleton
+public final class ParseObjectListPage extends ParseJson<ListPageWithPrefixes<GoogleCloudStorageObject>> {
+
+   @Inject ParseObjectListPage(Json json) {
+      super(json, new TypeLiteral<ListPageWithPrefixes<GoogleCloudStorageObject>>() {
+      });
+   }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.util.Strings2;
+
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+/**
+ * Splits the {@code multipart/mixed} response of a batch into one {@link BatchResponse} per request. Parts are
+ * ordered by the number in their {@code Content-ID}, since the service does not promise to answer in order. A part
+ * without a number, or numbers that repeat or leave a gap, fail the parse rather than credit one request's outcome
+ * to another.
+ *
+ * @see org.jclouds.googlecloudstorage.binders.BatchRequestsBinder
+ */
+public class ParseToBatchResponses implements Function<HttpResponse, List<BatchResponse>> {
+
+   private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+   private static final Pattern CONTENT_ID = Pattern.compile("(?im)^content-id:\\s*<[^>]*\\+(\\d+)>\\s*$");
+   private static final Pattern STATUS_LINE = Pattern.compile("HTTP/\\d\\.\\d (\\d{3}).*");
+
+   @Override
+   public List<BatchResponse> apply(HttpResponse response) {
+      checkNotNull(response.getPayload(), "batch response has no payload");
+      String contentType = response.getPayload().getContentMetadata().getContentType();
+      Matcher boundary = BOUNDARY.matcher(checkNotNull(contentType, "batch response has no content type"));
+      checkState(boundary.find(), "no boundary in batch response content type %s", contentType);
+
+      String body;
+      try {
+         body = Strings2.toStringAndClose(response.getPayload().openStream()).replace("\r\n", "\n");
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+
+      SortedMap<Integer, BatchResponse> byContentId = Maps.newTreeMap();
+      List<String> parts = Splitter.on("--" + boundary.group(1)).splitToList(body);
+      // the first part is the preamble and the last one follows the closing delimiter
+      for (String part : parts.subList(1, parts.size())) {
+         if (part.startsWith("--")) {
+            break;
+         }
+         String[] partHeadersAndMessage = splitHeaders(part.replaceFirst("^\n", ""));
+         BatchResponse parsed = parseMessage(partHeadersAndMessage[1]);
+         Matcher contentId = CONTENT_ID.matcher(partHeadersAndMessage[0]);
+         checkState(contentId.find(), "no numbered Content-ID in batch response part: %s", partHeadersAndMessage[0]);
+         Integer id = Integer.valueOf(contentId.group(1));
+         checkState(byContentId.put(id, parsed) == null, "duplicate Content-ID %s in batch response", id);
+      }
+      // numbered from 1 by BatchRequestsBinder
+      checkState(byContentId.isEmpty() || (byContentId.firstKey() == 1 && byContentId.lastKey() == byContentId.size()),
+            "batch response has gaps in its Content-IDs: %s", byContentId.keySet());
+      return ImmutableList.copyOf(byContentId.values());
+   }
+
+   private static BatchResponse parseMessage(String message) {
+      String[] headersAndBody = splitHeaders(message);
+      String statusLine = headersAndBody[0].split("\n", 2)[0].trim();
+      Matcher status = STATUS_LINE.matcher(statusLine);
+      checkState(status.matches(), "invalid status line in batch response: %s", statusLine);
+      String payload = headersAndBody[1].trim();
+      return BatchResponse.create(Integer.parseInt(status.group(1)), payload.isEmpty() ? null : payload);
+   }
+
+   /** Splits a MIME entity at its first empty line into headers and body. */
+   private static String[] splitHeaders(String entity) {
+      int end = entity.indexOf("\n\n");
+      if (end == -1) {
+         return new String[] { entity, "" };
+      }
+      return new String[] { entity.substring(0, end), entity.substring(end + 2) };
+   }
+}
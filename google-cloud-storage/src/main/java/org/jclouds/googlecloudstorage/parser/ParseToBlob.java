@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.io.BaseEncoding.base64;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.inject.Inject;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.date.DateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.MutableContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.util.Strings2;
+
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.hash.HashCode;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Builds a {@link Blob} from an {@code alt=media} response, reconstructing the object metadata from the
+ * {@code x-goog-*} response headers so that no separate metadata request is needed.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/reference-headers"/>
+ */
+public class ParseToBlob implements Function<HttpResponse, Blob>, InvocationContext<ParseToBlob> {
+
+   public static final String GENERATION = "x-goog-generation";
+   static final String HASH = "x-goog-hash";
+   static final String STORED_CONTENT_ENCODING = "x-goog-stored-content-encoding";
+   static final String STORED_CONTENT_LENGTH = "x-goog-stored-content-length";
+   static final String USER_METADATA_PREFIX = "x-goog-meta-";
+
+   private final DateService dateService;
+   private HttpRequest request;
+
+   @Inject ParseToBlob(DateService dateService) {
+      this.dateService = dateService;
+   }
+
+   @Override
+   public Blob apply(HttpResponse response) {
+      checkNotNull(request, "request must be set via setContext");
+      Map<String, String> headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+      // header names are case-insensitive, so user-metadata keys are lowercased here and in ObjectToBlobMetadata
+      Map<String, String> userMetadata = new LinkedHashMap<String, String>();
+      for (Map.Entry<String, String> header : response.getHeaders().entries()) {
+         String name = header.getKey();
+         if (name.regionMatches(true, 0, USER_METADATA_PREFIX, 0, USER_METADATA_PREFIX.length())) {
+            userMetadata.put(name.substring(USER_METADATA_PREFIX.length()).toLowerCase(), header.getValue());
+         } else if (headers.containsKey(name)) {
+            // x-goog-hash is sent once per algorithm
+            headers.put(name, headers.get(name) + "," + header.getValue());
+         } else {
+            headers.put(name, header.getValue());
+         }
+      }
+
+      String path = request.getEndpoint().getRawPath();
+      String bucket = path.substring(path.indexOf("/b/") + 3, path.lastIndexOf("/o/"));
+      String name = Strings2.urlDecode(path.substring(path.lastIndexOf("/o/") + 3));
+      String generation = headers.get(GENERATION);
+
+      Payload payload = response.getPayload();
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+      MutableContentMetadata contentMetadata = metadata.getContentMetadata();
+      if (payload != null) {
+         contentMetadata.setContentType(payload.getContentMetadata().getContentType());
+         contentMetadata.setContentDisposition(payload.getContentMetadata().getContentDisposition());
+         contentMetadata.setContentLanguage(payload.getContentMetadata().getContentLanguage());
+         contentMetadata.setContentLength(payload.getContentMetadata().getContentLength());
+      }
+      contentMetadata.setContentEncoding(headers.get(STORED_CONTENT_ENCODING));
+      contentMetadata.setContentMD5(parseMd5(headers.get(HASH)));
+
+      String storedLength = headers.get(STORED_CONTENT_LENGTH);
+      if (storedLength != null) {
+         metadata.setSize(Long.valueOf(storedLength));
+      } else {
+         metadata.setSize(contentMetadata.getContentLength());
+      }
+      String lastModified = headers.get(HttpHeaders.LAST_MODIFIED);
+      if (lastModified != null) {
+         metadata.setLastModified(dateService.rfc822DateParse(lastModified));
+      }
+      String etag = headers.get(HttpHeaders.ETAG);
+      if (etag != null) {
+         metadata.setETag(etag.replace("\"", ""));
+      }
+      metadata.setContainer(bucket);
+      metadata.setName(name);
+      metadata.setId(generation != null ? bucket + "/" + name + "/" + generation : null);
+      metadata.setUri(URI.create(request.getEndpoint().getScheme() + "://" + request.getEndpoint().getRawAuthority()
+            + path));
+      metadata.setPublicUri(request.getEndpoint());
+      metadata.setUserMetadata(userMetadata);
+      metadata.setType(StorageType.BLOB);
+
+      Blob blob = new BlobImpl(metadata);
+      if (payload != null) {
+         payload.setContentMetadata(contentMetadata); // Doing this first retains it on setPayload.
+         blob.setPayload(payload);
+      }
+      blob.setAllHeaders(response.getHeaders());
+      return blob;
+   }
+
+   @Override
+   public ParseToBlob setContext(HttpRequest request) {
+      this.request = request;
+      return this;
+   }
+
+   /** Extracts the md5 entry from a header of the form {@code crc32c=n03x6A==,md5=Ojk9c3dhfxgoKVVHYwFbHQ==}. */
+   private static HashCode parseMd5(String hashes) {
+      if (hashes == null) {
+         return null;
+      }
+      for (String hash : Splitter.on(',').trimResults().omitEmptyStrings().split(hashes)) {
+         if (hash.startsWith("md5=")) {
+            return HashCode.fromBytes(base64().decode(hash.substring(4)));
+         }
+      }
+      return null;
+   }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.googlecloudstorage.options.ListObjectOptions;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Turns the first page of an object listing into an iterator over every object of the listing. While the objects of
+ * one page are consumed, the next page is already being fetched on the user executor, so the latency of a page
+ * request overlaps with the processing of the previous page. At most one page is fetched ahead.
+ */
+public final class ToIteratorOfObjects implements
+      Function<ListPageWithPrefixes<GoogleCloudStorageObject>, Iterator<GoogleCloudStorageObject>>,
+      InvocationContext<ToIteratorOfObjects> {
+
+   private final GoogleCloudStorageApi api;
+   private final ListeningExecutorService userExecutor;
+   private GeneratedHttpRequest request;
+
+   @Inject ToIteratorOfObjects(GoogleCloudStorageApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.api = api;
+      this.userExecutor = userExecutor;
+   }
+
+   @Override
+   public Iterator<GoogleCloudStorageObject> apply(ListPageWithPrefixes<GoogleCloudStorageObject> firstPage) {
+      checkNotNull(request, "request must be set via setContext");
+      List<Object> args = request.getInvocation().getArgs();
+      String bucket = (String) args.get(0);
+      ListObjectOptions options = args.size() > 1 && args.get(1) != null ? (ListObjectOptions) args.get(1)
+            : new ListObjectOptions();
+      return new PrefetchingIterator(bucket, options, firstPage);
+   }
+
+   @Override
+   public ToIteratorOfObjects setContext(HttpRequest request) {
+      this.request = GeneratedHttpRequest.class.cast(request);
+      return this;
+   }
+
+   private final class PrefetchingIterator extends AbstractIterator<GoogleCloudStorageObject> {
+      private final String bucket;
+      private final ListObjectOptions options;
+      private Iterator<GoogleCloudStorageObject> current;
+      /** The page after {@link #current}, or {@code null} if there is none. */
+      private ListenableFuture<ListPageWithPrefixes<GoogleCloudStorageObject>> next;
+
+      PrefetchingIterator(String bucket, ListObjectOptions options,
+            ListPageWithPrefixes<GoogleCloudStorageObject> page) {
+         this.bucket = bucket;
+         this.options = options;
+         this.current = page.iterator();
+         this.next = prefetch(page.nextPageToken());
+      }
+
+      @Override
+      protected GoogleCloudStorageObject computeNext() {
+         while (!current.hasNext()) {
+            if (next == null) {
+               return endOfData();
+            }
+            ListPageWithPrefixes<GoogleCloudStorageObject> page = await(next);
+            if (page == null) {
+               // the bucket was deleted during the listing
+               next = null;
+               return endOfData();
+            }
+            current = page.iterator();
+            next = prefetch(page.nextPageToken());
+         }
+         return current.next();
+      }
+
+      private ListenableFuture<ListPageWithPrefixes<GoogleCloudStorageObject>> prefetch(String pageToken) {
+         if (pageToken == null) {
+            return null;
+         }
+         // the caller's options must not see our page tokens
+         final ListObjectOptions pageOptions = options.copy().pageToken(pageToken);
+         return userExecutor.submit(new Callable<ListPageWithPrefixes<GoogleCloudStorageObject>>() {
+            @Override
+            public ListPageWithPrefixes<GoogleCloudStorageObject> call() {
+               return api.getObjectApi().listObjects(bucket, pageOptions);
+            }
+         });
+      }
+
+      private ListPageWithPrefixes<GoogleCloudStorageObject> await(
+            ListenableFuture<ListPageWithPrefixes<GoogleCloudStorageObject>> page) {
+         try {
+            return page.get();
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ie);
+         } catch (ExecutionException ee) {
+            throw Throwables.propagate(ee.getCause());
+         }
+      }
+   }
+}
@@ -34,4 +34,178 @@ public final class GoogleCloudStorageConstants {
     */
    @Beta
    public static final String OPERATION_COMPLETE_INTERVAL = "jclouds.google-cloud-storage.operation-complete-interval";
+
+   /**
+    * The size, in bytes, of each range fetched concurrently by
+    * {@link org.jclouds.googlecloudstorage.blobstore.GoogleCloudStorageBlobStore#downloadBlob}.
+    */
+   @Beta
+   public static final String PARALLEL_DOWNLOAD_PART_SIZE = "jclouds.google-cloud-storage.parallel-download-part-size";
+
+   /**
+    * The maximum number of ranges fetched concurrently by
+    * {@link org.jclouds.googlecloudstorage.blobstore.GoogleCloudStorageBlobStore#downloadBlob}.
+    */
+   @Beta
+   public static final String PARALLEL_DOWNLOAD_PARALLELISM =
+         "jclouds.google-cloud-storage.parallel-download-parallelism";
+
+   /**
+    * The maximum number of parts uploaded concurrently by a multipart {@code putBlob}.
+    */
+   @Beta
+   public static final String MULTIPART_UPLOAD_PARALLELISM =
+         "jclouds.google-cloud-storage.multipart-upload-parallelism";
+
+   /**
+    * Whether to delete multipart upload components before {@code completeMultipartUpload} returns, instead of in
+    * the background. Mostly useful for tests.
+    */
+   @Beta
+   public static final String DELETE_COMPONENTS_SYNCHRONOUSLY =
+         "jclouds.google-cloud-storage.delete-components-synchronously";
+
+   /**
+    * The maximum number of prefix shards listed concurrently by
+    * {@link org.jclouds.googlecloudstorage.blobstore.strategy.ShardedListStrategy}.
+    */
+   @Beta
+   public static final String LIST_PARALLELISM = "jclouds.google-cloud-storage.list-parallelism";
+
+   /**
+    * Comma separated object fields, such as {@code name,size,contentType}, that blobstore listings ask for. The
+    * fields every object needs to parse are always included. An empty value requests the full resource.
+    *
+    * @see org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField
+    */
+   @Beta
+   public static final String LIST_OBJECT_FIELDS = "jclouds.google-cloud-storage.list-object-fields";
+
+   /**
+    * How long, in msecs, blob metadata stays in the blobstore's metadata cache. Zero, the default, disables the cache.
+    *
+    * @see org.jclouds.googlecloudstorage.blobstore.cache.MetadataCache
+    */
+   @Beta
+   public static final String METADATA_CACHE_TTL = "jclouds.google-cloud-storage.metadata-cache-ttl";
+
+   /**
+    * The approximate number of bytes the blobstore's metadata cache may hold before it evicts entries.
+    */
+   @Beta
+   public static final String METADATA_CACHE_MAX_WEIGHT = "jclouds.google-cloud-storage.metadata-cache-max-weight";
+
+   /**
+    * How long, in msecs, the blobstore remembers that an object does not exist. Zero, the default, disables the
+    * negative cache.
+    *
+    * @see org.jclouds.googlecloudstorage.blobstore.cache.NegativeLookupCache
+    */
+   @Beta
+   public static final String NEGATIVE_CACHE_TTL = "jclouds.google-cloud-storage.negative-cache-ttl";
+
+   /**
+    * The maximum number of missing objects the blobstore remembers.
+    */
+   @Beta
+   public static final String NEGATIVE_CACHE_SIZE = "jclouds.google-cloud-storage.negative-cache-size";
+
+   /**
+    * The number of names a primed prefix filter is sized for. The filter takes about 1.2 bytes per expected name and
+    * is filled as the prefix is listed; listing more names than expected only raises its false positive rate.
+    *
+    * @see org.jclouds.googlecloudstorage.blobstore.GoogleCloudStorageBlobStore#primeNegativeLookupCache
+    */
+   @Beta
+   public static final String NEGATIVE_CACHE_FILTER_EXPECTED_NAMES =
+         "jclouds.google-cloud-storage.negative-cache-filter-expected-names";
+
+   /**
+    * The number of bytes of object content the blobstore keeps in memory. Content is revalidated against the
+    * object's generation on every read. Zero, the default, keeps none.
+    */
+   @Beta
+   public static final String CONTENT_CACHE_MEMORY_SIZE = "jclouds.google-cloud-storage.content-cache-memory-size";
+
+   /**
+    * A directory in which the blobstore keeps object content that does not fit the memory cache. Empty, the
+    * default, keeps none on disk. Files in it are deleted when the blobstore starts.
+    */
+   @Beta
+   public static final String CONTENT_CACHE_DIRECTORY = "jclouds.google-cloud-storage.content-cache-directory";
+
+   /**
+    * The number of bytes of object content the blobstore keeps in
+    * {@link #CONTENT_CACHE_DIRECTORY}.
+    */
+   @Beta
+   public static final String CONTENT_CACHE_DISK_SIZE = "jclouds.google-cloud-storage.content-cache-disk-size";
+
+   /**
+    * Whether concurrent metadata requests and downloads of the same object share a single request. Off by default.
+    */
+   @Beta
+   public static final String COALESCE_READS = "jclouds.google-cloud-storage.coalesce-reads";
+
+   /**
+    * The largest object, in bytes, whose coalesced download is buffered in memory to be handed to every waiting caller.
+    */
+   @Beta
+   public static final String COALESCE_BUFFER_SIZE = "jclouds.google-cloud-storage.coalesce-buffer-size";
+
+   /**
+    * The most concurrent requests the blobstore issues to one bucket for multipart uploads, parallel downloads and
+    * composes. The limit is halved when the service answers 429 or 503 and recovers as requests complete. Zero, the
+    * default, leaves concurrency to the other settings.
+    */
+   @Beta
+   public static final String ADAPTIVE_CONCURRENCY_LIMIT = "jclouds.google-cloud-storage.adaptive-concurrency-limit";
+
+   /**
+    * The most object writes per second the blobstore sends to one bucket, once ramped up. Writes over the rate wait
+    * for their turn. Zero, the default, does not limit the bucket rate.
+    */
+   @Beta
+   public static final String WRITE_RATE_MAX = "jclouds.google-cloud-storage.write-rate-max";
+
+   /**
+    * The object writes per second the blobstore allows to a bucket it has not written to before.
+    */
+   @Beta
+   public static final String WRITE_RATE_INITIAL = "jclouds.google-cloud-storage.write-rate-initial";
+
+   /**
+    * The period in milliseconds after which a bucket's write rate doubles, until it reaches
+    * {@link #WRITE_RATE_MAX}.
+    */
+   @Beta
+   public static final String WRITE_RATE_RAMP_PERIOD = "jclouds.google-cloud-storage.write-rate-ramp-period";
+
+   /**
+    * The most writes per second the blobstore sends to one object name. Zero, the default, does not limit it.
+    */
+   @Beta
+   public static final String WRITE_RATE_PER_OBJECT = "jclouds.google-cloud-storage.write-rate-per-object";
+
+   /**
+    * The percentile of recent read latencies, such as 0.95, after which the blobstore sends a slow metadata read,
+    * existence check or download a second time and uses whichever response arrives first. Zero, the default, does not
+    * hedge reads.
+    */
+   @Beta
+   public static final String HEDGE_READS_PERCENTILE = "jclouds.google-cloud-storage.hedge-reads-percentile";
+
+   /**
+    * The most hedge requests the blobstore sends, as a fraction of all reads.
+    */
+   @Beta
+   public static final String HEDGE_READS_BUDGET = "jclouds.google-cloud-storage.hedge-reads-budget";
+
+   /**
+    * Whether the latency, status and bytes of every operation, and every retry, are kept in
+    * {@link org.jclouds.googlecloudstorage.metrics.OperationMetrics} when no other
+    * {@link org.jclouds.googlecloudstorage.metrics.MetricsSink} is bound. Defaults to false, which drops them.
+    */
+   @Beta
+   public static final String METRICS_ENABLED = "jclouds.google-cloud-storage.metrics-enabled";
 }
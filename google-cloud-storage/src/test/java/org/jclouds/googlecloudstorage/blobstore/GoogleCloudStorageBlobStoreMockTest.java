@@ -0,0 +1,1026 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.COALESCE_READS;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.CONTENT_CACHE_MEMORY_SIZE;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.DELETE_COMPONENTS_SYNCHRONOUSLY;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.LIST_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METADATA_CACHE_TTL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.MULTIPART_UPLOAD_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_FILTER_EXPECTED_NAMES;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.NEGATIVE_CACHE_TTL;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.PARALLEL_DOWNLOAD_PARALLELISM;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.PARALLEL_DOWNLOAD_PART_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.domain.BlobAccess;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.googlecloudstorage.blobstore.strategy.ShardedListStrategy;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "GoogleCloudStorageBlobStoreMockTest", singleThreaded = true)
+public class GoogleCloudStorageBlobStoreMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   private static final String DIGITS = "0123456789";
+   private static final String BATCH_BOUNDARY = "batch_boundary";
+   /** The smallest multipart part size. */
+   private static final int PART_SIZE = 5 * 1024 * 1024;
+
+   public void downloadBlobFetchesRangesPinnedToGeneration() throws Exception {
+      server.enqueue(digitsObject("KAwGng=="));
+      server.enqueue(new MockResponse().setResponseCode(206).setBody("0123"));
+      server.enqueue(new MockResponse().setResponseCode(206).setBody("4567"));
+      server.enqueue(new MockResponse().setResponseCode(206).setBody("89"));
+
+      Path destination = File.createTempFile("digits", ".txt").toPath();
+      try {
+         blobStore().downloadBlob("test", "digits", destination);
+
+         assertEquals(Files.toString(destination.toFile(), UTF_8), DIGITS);
+         assertSent(server, "GET", "/storage/v1/b/test/o/digits");
+         assertRange(assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media&ifGenerationMatch=1000", null),
+               "bytes=0-3");
+         assertRange(assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media&ifGenerationMatch=1000", null),
+               "bytes=4-7");
+         assertRange(assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media&ifGenerationMatch=1000", null),
+               "bytes=8-9");
+      } finally {
+         destination.toFile().delete();
+      }
+   }
+
+   public void downloadBlobDeletesFileOnHashMismatch() throws Exception {
+      server.enqueue(digitsObject("AAAAAA=="));
+      server.enqueue(new MockResponse().setResponseCode(206).setBody("0123"));
+      server.enqueue(new MockResponse().setResponseCode(206).setBody("4567"));
+      server.enqueue(new MockResponse().setResponseCode(206).setBody("89"));
+
+      Path destination = File.createTempFile("digits", ".txt").toPath();
+      try {
+         blobStore().downloadBlob("test", "digits", destination);
+         fail("expected hash mismatch");
+      } catch (IllegalStateException expected) {
+         assertFalse(destination.toFile().exists());
+      } finally {
+         destination.toFile().delete();
+      }
+   }
+
+   public void downloadBlobBoundsTheRangesInFlight() throws Exception {
+      RangeDispatcher dispatcher = new RangeDispatcher(2, null);
+      server.setDispatcher(dispatcher);
+
+      Path destination = File.createTempFile("digits", ".txt").toPath();
+      try {
+         parallelBlobStore(PARALLEL_DOWNLOAD_PARALLELISM, 2).downloadBlob("test", "digits", destination);
+
+         assertEquals(Files.toString(destination.toFile(), UTF_8), DIGITS);
+         assertEquals(dispatcher.ranges.get(), 3);
+         assertEquals(dispatcher.maxDownloading.get(), 2);
+      } finally {
+         destination.toFile().delete();
+      }
+   }
+
+   public void downloadBlobWaitsForRangesInFlightBeforeDeletingTheFile() throws Exception {
+      RangeDispatcher dispatcher = new RangeDispatcher(2, "bytes=0-3");
+      server.setDispatcher(dispatcher);
+
+      Path destination = File.createTempFile("digits", ".txt").toPath();
+      try {
+         parallelBlobStore(PARALLEL_DOWNLOAD_PARALLELISM, 2).downloadBlob("test", "digits", destination);
+         fail("expected AuthorizationException");
+      } catch (AuthorizationException expected) {
+         // the second range was still downloading when the first failed; the third was never started
+         assertEquals(dispatcher.downloading.get(), 0);
+         assertEquals(dispatcher.ranges.get(), 2);
+         assertFalse(destination.toFile().exists());
+      } finally {
+         destination.toFile().delete();
+      }
+   }
+
+   public void completeMultipartUploadComposesInLevelsAndDeletesComponents() throws Exception {
+      StringBuilder items = new StringBuilder();
+      ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
+      for (int i = 1; i <= 33; i++) {
+         String name = String.format("big_%08d", i);
+         items.append(i == 1 ? "" : ",").append(objectJson(name, i));
+         parts.add(MultipartPart.create(i, 1, "etag"));
+      }
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody("{\"kind\": \"storage#objects\", \"items\": [" + items + "]}"));
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody(objectJson("big.compose-0-00000", 2000)));
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody(objectJson("big", 3000)));
+      server.enqueue(batchResponse(1));
+      server.enqueue(batchResponse(33));
+
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+      metadata.setName("big");
+      metadata.getContentMetadata().setContentType("text/plain");
+      MultipartUpload mpu = MultipartUpload.create("test", "big", "big", metadata, PutOptions.NONE);
+
+      assertEquals(blobStore().completeMultipartUpload(mpu, parts.build()), "etag-3000");
+
+      assertListedParts(server.takeRequest(), "big_", null);
+      JsonObject intermediate = body(assertSent(server, "POST",
+            "/storage/v1/b/test/o/big.compose-0-00000/compose"));
+      assertEquals(intermediate.getAsJsonArray("sourceObjects").size(), 32);
+      JsonArray sources = body(assertSent(server, "POST", "/storage/v1/b/test/o/big/compose"))
+            .getAsJsonArray("sourceObjects");
+      assertEquals(sources.size(), 2);
+      assertEquals(sources.get(0).getAsJsonObject().get("name").getAsString(), "big.compose-0-00000");
+      assertEquals(sources.get(0).getAsJsonObject().get("generation").getAsLong(), 2000);
+      assertEquals(sources.get(1).getAsJsonObject().get("name").getAsString(), "big_00000033");
+      String intermediates = new String(assertSent(server, "POST", "/batch/storage/v1", null).getBody(), UTF_8);
+      assertTrue(intermediates.contains("DELETE /storage/v1/b/test/o/big.compose-0-00000 HTTP/1.1"));
+      String components = new String(assertSent(server, "POST", "/batch/storage/v1", null).getBody(), UTF_8);
+      for (int i = 1; i <= 33; i++) {
+         assertTrue(components.contains(String.format("DELETE /storage/v1/b/test/o/big_%08d HTTP/1.1", i)));
+      }
+   }
+
+   public void putMultipartBlobUploadsPartsInParallelAndComposesThemInOrder() throws Exception {
+      MultipartDispatcher dispatcher = new MultipartDispatcher(2, null);
+      server.setDispatcher(dispatcher);
+      GoogleCloudStorageBlobStore blobStore = parallelBlobStore(2);
+
+      assertEquals(blobStore.putBlob("test", blobStore.blobBuilder("big").payload(new byte[2 * PART_SIZE + 1])
+            .contentType("application/octet-stream").build(), PutOptions.Builder.multipart()), "etag-3000");
+
+      assertEquals(dispatcher.maxUploading.get(), 2);
+      assertEquals(dispatcher.uploaded, ImmutableSet.of("big_00000001", "big_00000002", "big_00000003"));
+      assertEquals(dispatcher.composed.size(), 3);
+      for (int i = 0; i < 3; i++) {
+         assertEquals(dispatcher.composed.get(i).getAsJsonObject().get("name").getAsString(),
+               String.format("big_%08d", i + 1));
+      }
+   }
+
+   public void putMultipartBlobStopsSlicingWhenAPartFails() throws Exception {
+      MultipartDispatcher dispatcher = new MultipartDispatcher(1, "big_00000001");
+      server.setDispatcher(dispatcher);
+      GoogleCloudStorageBlobStore blobStore = parallelBlobStore(1);
+
+      try {
+         blobStore.putBlob("test", blobStore.blobBuilder("big").payload(new byte[2 * PART_SIZE + 1])
+               .contentType("application/octet-stream").build(), PutOptions.Builder.multipart());
+         fail("expected AuthorizationException");
+      } catch (AuthorizationException expected) {
+      }
+
+      assertEquals(dispatcher.uploads.get(), 1);
+      assertEquals(dispatcher.uploadingWhenListed, 0);
+      assertNull(dispatcher.composed);
+   }
+
+   public void putMultipartBlobAbortsOnlyAfterPartsInFlightFinish() throws Exception {
+      MultipartDispatcher dispatcher = new MultipartDispatcher(2, "big_00000001");
+      server.setDispatcher(dispatcher);
+      GoogleCloudStorageBlobStore blobStore = parallelBlobStore(2);
+
+      try {
+         blobStore.putBlob("test", blobStore.blobBuilder("big").payload(new byte[2 * PART_SIZE + 1])
+               .contentType("application/octet-stream").build(), PutOptions.Builder.multipart());
+         fail("expected AuthorizationException");
+      } catch (AuthorizationException expected) {
+      }
+
+      // the second part was still uploading when the first failed; the abort waited for it and deleted it
+      assertEquals(dispatcher.uploads.get(), 2);
+      assertEquals(dispatcher.uploadingWhenListed, 0);
+      assertEquals(dispatcher.deleted, ImmutableSet.of("big_00000002"));
+   }
+
+   public void listMultipartUploadFollowsPageTokens() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json").setBody("{" +
+            "  \"nextPageToken\": \"page2\"," +
+            "  \"items\": [" + partialJson("big_00000001", 5) + "," + partialJson("big_extra", 1) + "," +
+            partialJson("big_00000002", 5) + "]" +
+            "}"));
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json").setBody("{" +
+            "  \"items\": [" + partialJson("big_00000003", 2) + "]" +
+            "}"));
+
+      MultipartUpload mpu = MultipartUpload.create("test", "big", "big", new MutableBlobMetadataImpl(),
+            PutOptions.NONE);
+      List<MultipartPart> parts = blobStore().listMultipartUpload(mpu);
+
+      assertEquals(parts.size(), 3);
+      for (int i = 0; i < 3; i++) {
+         assertEquals(parts.get(i).partNumber(), i + 1);
+         assertEquals(parts.get(i).partETag(), String.format("etag-big_%08d", i + 1));
+      }
+      assertEquals(parts.get(2).partSize(), 2);
+      assertListedParts(server.takeRequest(), "big_", null);
+      assertListedParts(server.takeRequest(), "big_", "page2");
+   }
+
+   public void removeBlobsSendsBatchesOfOneHundred() throws Exception {
+      server.enqueue(batchResponse(100));
+      server.enqueue(batchResponse(50));
+
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (int i = 0; i < 150; i++) {
+         names.add("file_" + i);
+      }
+      blobStore().removeBlobs("test", names.build());
+
+      assertEquals(countDeletes(assertSent(server, "POST", "/batch/storage/v1", null)), 100);
+      assertEquals(countDeletes(assertSent(server, "POST", "/batch/storage/v1", null)), 50);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void removeBlobsFailsOnFailedDelete() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=" + BATCH_BOUNDARY)
+            .setBody(batchPart(1, "204 No Content") + batchPart(2, "403 Forbidden") + "--" + BATCH_BOUNDARY + "--"));
+
+      blobStore().removeBlobs("test", ImmutableList.of("a", "b"));
+   }
+
+   public void removeBlobsRetriesThrottledDeletes() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=" + BATCH_BOUNDARY)
+            .setBody(batchPart(1, "204 No Content") + batchPart(2, "429 Too Many Requests") +
+                  batchPart(3, "503 Service Unavailable") + "--" + BATCH_BOUNDARY + "--"));
+      server.enqueue(batchResponse(2));
+
+      blobStore().removeBlobs("test", ImmutableList.of("a", "b", "c"));
+
+      assertEquals(countDeletes(assertSent(server, "POST", "/batch/storage/v1", null)), 3);
+      RecordedRequest retry = assertSent(server, "POST", "/batch/storage/v1", null);
+      assertEquals(countDeletes(retry), 2);
+      String retried = new String(retry.getBody(), UTF_8);
+      assertTrue(retried.contains("DELETE /storage/v1/b/test/o/b HTTP/1.1"));
+      assertTrue(retried.contains("DELETE /storage/v1/b/test/o/c HTTP/1.1"));
+   }
+
+   public void setBlobAccessGrantsPublicReadInOneBatch() throws Exception {
+      server.enqueue(batchResponse(2));
+
+      blobStore().setBlobAccess("test", ImmutableList.of("a", "b"), BlobAccess.PUBLIC_READ);
+
+      String inserts = new String(assertSent(server, "POST", "/batch/storage/v1", null).getBody(), UTF_8);
+      assertTrue(inserts.contains("POST /storage/v1/b/test/o/a/acl HTTP/1.1"));
+      assertTrue(inserts.contains("POST /storage/v1/b/test/o/b/acl HTTP/1.1"));
+      assertTrue(inserts.contains("\"entity\":\"allUsers\""));
+      assertTrue(inserts.contains("\"role\":\"READER\""));
+   }
+
+   public void setBlobAccessToleratesRevokingAccessThatWasNeverGranted() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=" + BATCH_BOUNDARY)
+            .setBody(batchPart(1, "204 No Content") + batchPart(2, "404 Not Found") + "--" + BATCH_BOUNDARY + "--"));
+
+      blobStore().setBlobAccess("test", ImmutableList.of("a", "b"), BlobAccess.PRIVATE);
+
+      String deletes = new String(assertSent(server, "POST", "/batch/storage/v1", null).getBody(), UTF_8);
+      assertTrue(deletes.contains("DELETE /storage/v1/b/test/o/a/acl/allUsers HTTP/1.1"));
+      assertTrue(deletes.contains("DELETE /storage/v1/b/test/o/b/acl/allUsers HTTP/1.1"));
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void setBlobAccessFailsOnFailedGrant() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=" + BATCH_BOUNDARY)
+            .setBody(batchPart(1, "200 OK") + batchPart(2, "404 Not Found") + "--" + BATCH_BOUNDARY + "--"));
+
+      blobStore().setBlobAccess("test", ImmutableList.of("a", "b"), BlobAccess.PUBLIC_READ);
+   }
+
+   public void clearContainerDeletesEveryListedObject() throws Exception {
+      server.enqueue(jsonPage("{\"nextPageToken\": \"page2\", \"items\": [" + partialJson("a", 1) + "," +
+            partialJson("b", 1) + "]}"));
+      server.enqueue(jsonPage("{\"items\": [" + partialJson("c", 1) + "]}"));
+      server.enqueue(batchResponse(3));
+
+      blobStore().clearContainer("test");
+
+      assertEquals(server.takeRequest().getMethod(), "GET");
+      assertEquals(server.takeRequest().getMethod(), "GET");
+      String deletes = new String(assertSent(server, "POST", "/batch/storage/v1", null).getBody(), UTF_8);
+      for (String name : ImmutableList.of("a", "b", "c")) {
+         assertTrue(deletes.contains("DELETE /storage/v1/b/test/o/" + name + " HTTP/1.1"));
+      }
+   }
+
+   @Test(expectedExceptions = ContainerNotFoundException.class)
+   public void clearContainerFailsOnMissingBucket() throws Exception {
+      server.enqueue(response404());
+
+      blobStore().clearContainer("test");
+   }
+
+   @Test(expectedExceptions = ContainerNotFoundException.class)
+   public void boundedClearContainerFailsOnMissingBucket() throws Exception {
+      server.enqueue(response404());
+
+      blobStore().clearContainer("test", ListContainerOptions.Builder.maxResults(10));
+   }
+
+   public void detailedListBuildsMetadataFromListing() throws Exception {
+      server.enqueue(jsonResponse("/object_list.json"));
+
+      PageSet<? extends StorageMetadata> page = blobStore().list("test",
+            ListContainerOptions.Builder.recursive().withDetails());
+
+      assertEquals(page.size(), 2);
+      BlobMetadata metadata = (BlobMetadata) page.iterator().next();
+      assertEquals(metadata.getName(), "file_name");
+      assertEquals(metadata.getContentMetadata().getContentType(), "application/x-tar");
+      assertListed("/storage/v1/b/test/o?fields=nextPageToken,prefixes,items(id,selfLink,etag,name,bucket," +
+            "generation,contentType,updated,size,md5Hash,mediaLink,metadata,contentEncoding,contentDisposition," +
+            "contentLanguage)");
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void listStreamsObjectsAndPrefixesInNameOrder() throws Exception {
+      server.enqueue(jsonPage("{\"kind\": \"storage#objects\", \"nextPageToken\": \"page2\"," +
+            " \"items\": [" + partialJson("a", 1) + "," + partialJson("z", 2) + "], \"prefixes\": [\"m/\"]}"));
+
+      PageSet<? extends StorageMetadata> page = blobStore().list("test");
+
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      ImmutableList.Builder<StorageType> types = ImmutableList.builder();
+      for (StorageMetadata metadata : page) {
+         names.add(metadata.getName());
+         types.add(metadata.getType());
+      }
+      assertEquals(names.build(), ImmutableList.of("a", "m/", "z"));
+      assertEquals(types.build(), ImmutableList.of(StorageType.BLOB, StorageType.RELATIVE_PATH, StorageType.BLOB));
+      assertEquals(page.getNextMarker(), "page2");
+   }
+
+   public void listMissingBucketIsEmpty() throws Exception {
+      server.enqueue(response404());
+
+      assertTrue(blobStore().list("test").isEmpty());
+   }
+
+   public void metadataCacheServesRepeatedReads() throws Exception {
+      server.enqueue(jsonResponse("/object_get.json"));
+      GoogleCloudStorageBlobStore blobStore = blobStore(METADATA_CACHE_TTL, "60000");
+
+      assertEquals(blobStore.blobMetadata("test", "file_name").getName(), "file_name");
+      assertTrue(blobStore.blobExists("test", "file_name"));
+      assertEquals(blobStore.blobMetadata("test", "file_name").getETag(), "etag");
+
+      assertEquals(server.getRequestCount(), 1);
+      assertEquals(blobStore.getMetadataCacheStats().hitCount(), 2);
+      assertEquals(blobStore.getMetadataCacheStats().missCount(), 1);
+   }
+
+   public void metadataCacheIsInvalidatedByRemoveBlob() throws Exception {
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(response404());
+      GoogleCloudStorageBlobStore blobStore = blobStore(METADATA_CACHE_TTL, "60000");
+
+      assertTrue(blobStore.blobExists("test", "file_name"));
+      blobStore.removeBlob("test", "file_name");
+      assertFalse(blobStore.blobExists("test", "file_name"));
+
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+      assertSent(server, "DELETE", "/storage/v1/b/test/o/file_name");
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+   }
+
+   public void metadataCacheIsPopulatedByListing() throws Exception {
+      server.enqueue(jsonResponse("/object_list.json"));
+      GoogleCloudStorageBlobStore blobStore = blobStore(METADATA_CACHE_TTL, "60000");
+
+      blobStore.list("test");
+
+      assertEquals(blobStore.blobMetadata("test", "file_name2").getContentMetadata().getContentType(), "image/png");
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void blobAndBlobMetadataReportTheSameUserMetadataKeys() throws Exception {
+      server.enqueue(new MockResponse().setBody(DIGITS).addHeader("X-Goog-Meta-Owner", "jclouds"));
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json")
+            .setBody("{\"name\": \"digits\", \"bucket\": \"test\", \"metadata\": {\"Owner\": \"jclouds\"}}"));
+      GoogleCloudStorageBlobStore blobStore = blobStore();
+
+      Map<String, String> expected = ImmutableMap.of("owner", "jclouds");
+      assertEquals(blobStore.getBlob("test", "digits").getMetadata().getUserMetadata(), expected);
+      assertEquals(blobStore.blobMetadata("test", "digits").getUserMetadata(), expected);
+   }
+
+   public void contentCacheRevalidatesByGeneration() throws Exception {
+      server.enqueue(new MockResponse().setBody(DIGITS).addHeader("x-goog-generation", "7"));
+      server.enqueue(new MockResponse().setResponseCode(304));
+      GoogleCloudStorageBlobStore blobStore = blobStore(CONTENT_CACHE_MEMORY_SIZE, "1024");
+
+      assertEquals(Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream()), DIGITS);
+      assertEquals(Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream()), DIGITS);
+
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media");
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media&ifGenerationNotMatch=7");
+   }
+
+   public void removeBlobsDropsCachedContent() throws Exception {
+      server.enqueue(new MockResponse().setBody(DIGITS).addHeader("x-goog-generation", "7"));
+      server.enqueue(batchResponse(1));
+      server.enqueue(response404());
+      GoogleCloudStorageBlobStore blobStore = blobStore(CONTENT_CACHE_MEMORY_SIZE, "1024");
+
+      assertEquals(Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream()), DIGITS);
+      blobStore.removeBlobs("test", ImmutableList.of("digits"));
+      assertNull(blobStore.getBlob("test", "digits"));
+
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media");
+      assertSent(server, "POST", "/batch/storage/v1", null);
+      // not a conditional request: the deleted content is no longer cached
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media");
+   }
+
+   public void clearContainerDropsCachedContent() throws Exception {
+      server.enqueue(new MockResponse().setBody(DIGITS).addHeader("x-goog-generation", "7"));
+      server.enqueue(jsonPage("{\"items\": [" + partialJson("digits", 1) + "]}"));
+      server.enqueue(batchResponse(1));
+      server.enqueue(response404());
+      GoogleCloudStorageBlobStore blobStore = blobStore(CONTENT_CACHE_MEMORY_SIZE, "1024");
+
+      assertEquals(Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream()), DIGITS);
+      blobStore.clearContainer("test");
+      assertNull(blobStore.getBlob("test", "digits"));
+
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media");
+      server.takeRequest();
+      assertSent(server, "POST", "/batch/storage/v1", null);
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media");
+   }
+
+   public void concurrentReadsOfTheSameObjectShareOneDownload() throws Exception {
+      final CountDownLatch release = new CountDownLatch(1);
+      server.setDispatcher(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            release.await(10, TimeUnit.SECONDS);
+            return new MockResponse().setBody(DIGITS);
+         }
+      });
+      final GoogleCloudStorageBlobStore blobStore = blobStore(COALESCE_READS, "true");
+      List<FutureTask<String>> reads = Lists.newArrayList();
+      List<Thread> readers = Lists.newArrayList();
+      for (int i = 0; i < 4; i++) {
+         FutureTask<String> read = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+               return Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream());
+            }
+         });
+         reads.add(read);
+         readers.add(new Thread(read));
+         readers.get(i).start();
+      }
+
+      // hold the download until the other readers wait for it, or until one of them sends a request of its own
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (waiting(readers) < 3 && server.getRequestCount() < 2 && System.nanoTime() < deadline) {
+         Thread.sleep(10);
+      }
+      release.countDown();
+      for (FutureTask<String> read : reads) {
+         assertEquals(read.get(10, TimeUnit.SECONDS), DIGITS);
+      }
+
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void readAfterAWriteDoesNotJoinAnEarlierDownload() throws Exception {
+      final CountDownLatch release = new CountDownLatch(1);
+      server.setDispatcher(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (request.getMethod().equals("DELETE")) {
+               return new MockResponse().setResponseCode(204);
+            }
+            release.await(10, TimeUnit.SECONDS);
+            return new MockResponse().setBody(DIGITS);
+         }
+      });
+      final GoogleCloudStorageBlobStore blobStore = blobStore(COALESCE_READS, "true");
+      FutureTask<String> before = new FutureTask<String>(new Callable<String>() {
+         @Override
+         public String call() throws Exception {
+            return Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream());
+         }
+      });
+      new Thread(before).start();
+      while (server.getRequestCount() < 1) {
+         Thread.sleep(10);
+      }
+
+      blobStore.removeBlob("test", "digits");
+      FutureTask<String> after = new FutureTask<String>(new Callable<String>() {
+         @Override
+         public String call() throws Exception {
+            return Strings2.toStringAndClose(blobStore.getBlob("test", "digits").getPayload().openStream());
+         }
+      });
+      new Thread(after).start();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (server.getRequestCount() < 3 && System.nanoTime() < deadline) {
+         Thread.sleep(10);
+      }
+      release.countDown();
+
+      assertEquals(before.get(10, TimeUnit.SECONDS), DIGITS);
+      assertEquals(after.get(10, TimeUnit.SECONDS), DIGITS);
+      // the read after the delete sent its own request
+      assertEquals(server.getRequestCount(), 3);
+   }
+
+   public void negativeLookupCacheAnswersRepeatedMissesUntilPut() throws Exception {
+      server.enqueue(response404());
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+      GoogleCloudStorageBlobStore blobStore = blobStore(NEGATIVE_CACHE_TTL, "60000");
+
+      assertFalse(blobStore.blobExists("test", "file_name"));
+      assertFalse(blobStore.blobExists("test", "file_name"));
+      assertNull(blobStore.getBlob("test", "file_name"));
+      blobStore.putBlob("test", blobStore.blobBuilder("file_name").payload("x").build());
+      assertTrue(blobStore.blobExists("test", "file_name"));
+
+      assertEquals(server.getRequestCount(), 3);
+      assertEquals(blobStore.getNegativeLookupCacheStats().hitCount(), 2);
+   }
+
+   public void primedNegativeLookupCacheAnswersUnlistedNames() throws Exception {
+      server.enqueue(jsonPage("{\"items\": [" + partialJson("dir/a", 1) + "," + partialJson("dir/b", 1) + "]}"));
+      server.enqueue(jsonResponse("/object_get.json"));
+      GoogleCloudStorageBlobStore blobStore = blobStore();
+
+      blobStore.primeNegativeLookupCache("test", "dir/", 1, TimeUnit.MINUTES);
+
+      assertFalse(blobStore.blobExists("test", "dir/c"));
+      assertTrue(blobStore.blobExists("test", "dir/a"));
+      assertListed("/storage/v1/b/test/o?fields=nextPageToken,prefixes,items(etag,name,generation,size)&prefix=dir/");
+      assertListed("/storage/v1/b/test/o/dir/a");
+   }
+
+   public void primedNegativeLookupCacheKeepsEveryNameBeyondTheExpectedCount() throws Exception {
+      server.enqueue(jsonPage("{\"nextPageToken\": \"p2\", \"items\": [" + partialJson("dir/a", 1) + "," +
+            partialJson("dir/b", 1) + "]}"));
+      server.enqueue(jsonPage("{\"items\": [" + partialJson("dir/c", 1) + "]}"));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(jsonResponse("/object_get.json"));
+      GoogleCloudStorageBlobStore blobStore = blobStore(NEGATIVE_CACHE_FILTER_EXPECTED_NAMES, "1");
+
+      blobStore.primeNegativeLookupCache("test", "dir/", 1, TimeUnit.MINUTES);
+
+      // an overfull filter may report false positives, never false negatives
+      assertTrue(blobStore.blobExists("test", "dir/a"));
+      assertTrue(blobStore.blobExists("test", "dir/b"));
+      assertTrue(blobStore.blobExists("test", "dir/c"));
+      assertEquals(server.getRequestCount(), 5);
+   }
+
+   public void listAllSortedMergesShardsInNameOrder() throws Exception {
+      server.setDispatcher(new ListingDispatcher(ImmutableMap.of(
+            "delimiter=/", "{\"nextPageToken\": \"p2\", \"prefixes\": [\"a/\"], \"items\": [" +
+                  partialJson("a", 1) + "]}",
+            "delimiter=/&pageToken=p2", "{\"prefixes\": [\"b/\"], \"items\": [" + partialJson("c", 1) + "]}",
+            "prefix=a/", "{\"nextPageToken\": \"a2\", \"items\": [" + partialJson("a/1", 1) + "]}",
+            "pageToken=a2&prefix=a/", "{\"items\": [" + partialJson("a/2", 1) + "]}",
+            "prefix=b/", "{\"items\": [" + partialJson("b/1", 1) + "]}")));
+
+      ShardedListStrategy.Listing listing = blobStore().listAll("test", null, true);
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      while (listing.hasNext()) {
+         names.add(listing.next().name());
+      }
+
+      assertEquals(names.build(), ImmutableList.of("a", "a/1", "a/2", "b/1", "c"));
+      // the first delimited page chooses the shards and is not listed again
+      assertEquals(server.getRequestCount(), 5);
+   }
+
+   public void listAllUnorderedReturnsEveryShard() throws Exception {
+      server.setDispatcher(new ListingDispatcher(ImmutableMap.of(
+            "delimiter=/", "{\"nextPageToken\": \"p2\", \"prefixes\": [\"a/\"]}",
+            "delimiter=/&pageToken=p2", "{\"prefixes\": [\"b/\"], \"items\": [" + partialJson("c", 1) + "]}",
+            "prefix=a/", "{\"items\": [" + partialJson("a/1", 1) + "]}",
+            "prefix=b/", "{\"items\": [" + partialJson("b/1", 1) + "," + partialJson("b/2", 1) + "]}")));
+
+      ShardedListStrategy.Listing listing = blobStore().listAll("test", null, false);
+      ImmutableSet.Builder<String> names = ImmutableSet.builder();
+      while (listing.hasNext()) {
+         names.add(listing.next().name());
+      }
+
+      assertEquals(names.build(), ImmutableSet.of("a/1", "b/1", "b/2", "c"));
+      assertEquals(server.getRequestCount(), 4);
+   }
+
+   public void listAllListsAFlatBucketOnce() throws Exception {
+      server.setDispatcher(new ListingDispatcher(ImmutableMap.of(
+            "delimiter=/", "{\"nextPageToken\": \"p2\", \"items\": [" + partialJson("a", 1) + "]}",
+            "delimiter=/&pageToken=p2", "{\"items\": [" + partialJson("b", 1) + "]}")));
+
+      for (boolean sorted : new boolean[] { true, false }) {
+         ShardedListStrategy.Listing listing = blobStore().listAll("test", null, sorted);
+         ImmutableList.Builder<String> names = ImmutableList.builder();
+         while (listing.hasNext()) {
+            names.add(listing.next().name());
+         }
+         assertEquals(names.build(), ImmutableList.of("a", "b"));
+      }
+      assertEquals(server.getRequestCount(), 4);
+   }
+
+   public void listAllCompletesOnAUserExecutorNoLargerThanItsShards() throws Exception {
+      ImmutableMap.Builder<String, String> pages = ImmutableMap.builder();
+      pages.put("delimiter=/", "{\"prefixes\": [\"a/\", \"b/\", \"c/\"]}");
+      for (String prefix : ImmutableList.of("a/", "b/", "c/")) {
+         pages.put("prefix=" + prefix, "{\"nextPageToken\": \"2\", \"items\": [" + partialJson(prefix + "1", 1) + "]}");
+         pages.put("pageToken=2&prefix=" + prefix, "{\"items\": [" + partialJson(prefix + "2", 1) + "]}");
+      }
+      server.setDispatcher(new ListingDispatcher(pages.build()));
+      Properties overrides = new Properties();
+      overrides.setProperty(LIST_PARALLELISM, "2");
+      GoogleCloudStorageBlobStore blobStore = (GoogleCloudStorageBlobStore) builder(ImmutableSet.<Module> of(
+            new ExecutorServiceModule(MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(2))),
+            new OkHttpCommandExecutorServiceModule()))
+            .overrides(overrides).buildView(BlobStoreContext.class).getBlobStore();
+
+      // every user thread lists a shard, so pages must not be fetched on the user executor
+      ShardedListStrategy.Listing listing = blobStore.listAll("test", null, false);
+      ImmutableSet.Builder<String> names = ImmutableSet.builder();
+      while (listing.hasNext()) {
+         names.add(listing.next().name());
+      }
+
+      assertEquals(names.build(), ImmutableSet.of("a/1", "a/2", "b/1", "b/2", "c/1", "c/2"));
+   }
+
+   public void listAllStopsEveryShardWhenOneFails() throws Exception {
+      StringBuilder items = new StringBuilder();
+      // one more object than a shard buffers
+      for (int i = 0; i <= 1000; i++) {
+         items.append(i == 0 ? "" : ",").append(partialJson("b/" + i, 1));
+      }
+      final ListingDispatcher pages = new ListingDispatcher(ImmutableMap.of(
+            "delimiter=/", "{\"prefixes\": [\"a/\", \"b/\"]}",
+            "prefix=b/", "{\"items\": [" + items + "]}"));
+      server.setDispatcher(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) {
+            return Strings2.urlDecode(request.getPath()).endsWith("prefix=a/") ? new MockResponse().setResponseCode(503)
+                  : pages.dispatch(request);
+         }
+      });
+      ExecutorService userExecutor = Executors.newCachedThreadPool();
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, "0");
+      GoogleCloudStorageBlobStore blobStore = (GoogleCloudStorageBlobStore) builder(ImmutableSet.<Module> of(
+            new ExecutorServiceModule(MoreExecutors.listeningDecorator(userExecutor)),
+            new OkHttpCommandExecutorServiceModule()))
+            .overrides(overrides).buildView(BlobStoreContext.class).getBlobStore();
+
+      ShardedListStrategy.Listing listing = blobStore.listAll("test", null, true);
+      try {
+         listing.hasNext();
+         fail("expected HttpResponseException");
+      } catch (HttpResponseException expected) {
+         assertEquals(expected.getResponse().getStatusCode(), 503);
+      }
+
+      // the shard of b/ filled its buffer while a/ failed; the failed listing must have stopped it
+      userExecutor.shutdown();
+      assertTrue(userExecutor.awaitTermination(5, TimeUnit.SECONDS));
+   }
+
+   /** Answers object listings by their decoded query string, and with 404 when no page matches. */
+   private static final class ListingDispatcher extends Dispatcher {
+      private final Map<String, String> pages;
+
+      ListingDispatcher(Map<String, String> pages) {
+         this.pages = pages;
+      }
+
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+         String path = Strings2.urlDecode(request.getPath());
+         String page = pages.get(path.substring(path.indexOf('?') + 1));
+         return page == null ? new MockResponse().setResponseCode(404) : jsonPage(page);
+      }
+   }
+
+   /**
+    * Serves multipart uploads: part uploads, the part listing, the compose and the deletion of parts. Every part waits
+    * until {@code parallelism} parts are uploading at once, and the failing part, if any, is answered with 403 while
+    * the others take a while longer.
+    */
+   private static final class MultipartDispatcher extends Dispatcher {
+      private final CountDownLatch parallel;
+      private final String failingPart;
+      private final AtomicInteger uploads = new AtomicInteger();
+      private final AtomicInteger uploading = new AtomicInteger();
+      private final AtomicInteger maxUploading = new AtomicInteger();
+      private final Set<String> uploaded = Sets.newConcurrentHashSet();
+      private final Set<String> deleted = Sets.newConcurrentHashSet();
+      private volatile int uploadingWhenListed = -1;
+      private volatile JsonArray composed;
+
+      MultipartDispatcher(int parallelism, String failingPart) {
+         this.parallel = new CountDownLatch(parallelism);
+         this.failingPart = failingPart;
+      }
+
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+         String path = Strings2.urlDecode(request.getPath());
+         if (path.startsWith("/upload/")) {
+            String name = path.substring(path.indexOf("name=") + "name=".length());
+            uploads.incrementAndGet();
+            int now = uploading.incrementAndGet();
+            try {
+               while (true) {
+                  int max = maxUploading.get();
+                  if (now <= max || maxUploading.compareAndSet(max, now)) {
+                     break;
+                  }
+               }
+               parallel.countDown();
+               parallel.await(5, TimeUnit.SECONDS);
+               if (name.equals(failingPart)) {
+                  return new MockResponse().setResponseCode(403);
+               } else if (failingPart != null) {
+                  Thread.sleep(200);
+               }
+               uploaded.add(name);
+               return jsonPage(objectJson(name, 1));
+            } finally {
+               uploading.decrementAndGet();
+            }
+         } else if (request.getMethod().equals("GET")) {
+            uploadingWhenListed = uploading.get();
+            StringBuilder items = new StringBuilder();
+            for (String name : Sets.newTreeSet(uploaded)) {
+               items.append(items.length() == 0 ? "" : ",").append(partialJson(name, PART_SIZE));
+            }
+            return jsonPage("{\"items\": [" + items + "]}");
+         } else if (path.endsWith("/compose")) {
+            composed = body(request).getAsJsonArray("sourceObjects");
+            return jsonPage(objectJson("big", 3000));
+         }
+         for (String name : uploaded) {
+            if (new String(request.getBody(), UTF_8).contains("DELETE /storage/v1/b/test/o/" + name + " ")) {
+               deleted.add(name);
+            }
+         }
+         return batchResponse(countDeletes(request));
+      }
+   }
+
+   /**
+    * Serves the digits object and its ranges. Every range waits until {@code parallelism} ranges are downloading at
+    * once, and the failing range, if any, is answered with 403 while the others take a while longer.
+    */
+   private static final class RangeDispatcher extends Dispatcher {
+      private final CountDownLatch parallel;
+      private final String failingRange;
+      private final AtomicInteger ranges = new AtomicInteger();
+      private final AtomicInteger downloading = new AtomicInteger();
+      private final AtomicInteger maxDownloading = new AtomicInteger();
+
+      RangeDispatcher(int parallelism, String failingRange) {
+         this.parallel = new CountDownLatch(parallelism);
+         this.failingRange = failingRange;
+      }
+
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+         String range = request.getHeader("Range");
+         if (range == null) {
+            return digitsObject("KAwGng==");
+         }
+         ranges.incrementAndGet();
+         int now = downloading.incrementAndGet();
+         try {
+            while (true) {
+               int max = maxDownloading.get();
+               if (now <= max || maxDownloading.compareAndSet(max, now)) {
+                  break;
+               }
+            }
+            parallel.countDown();
+            parallel.await(5, TimeUnit.SECONDS);
+            if (range.equals(failingRange)) {
+               return new MockResponse().setResponseCode(403);
+            } else if (failingRange != null) {
+               Thread.sleep(200);
+            }
+            List<String> bounds = Splitter.on('-').splitToList(range.substring("bytes=".length()));
+            return new MockResponse().setResponseCode(206)
+                  .setBody(DIGITS.substring(Integer.parseInt(bounds.get(0)), Integer.parseInt(bounds.get(1)) + 1));
+         } finally {
+            downloading.decrementAndGet();
+         }
+      }
+   }
+
+   /** Returns a blob store with a real user executor, uploading parts of {@value #PART_SIZE} bytes. */
+   private GoogleCloudStorageBlobStore parallelBlobStore(int parallelism) {
+      return parallelBlobStore(MULTIPART_UPLOAD_PARALLELISM, parallelism);
+   }
+
+   private GoogleCloudStorageBlobStore parallelBlobStore(String property, int parallelism) {
+      Properties overrides = new Properties();
+      overrides.setProperty(property, String.valueOf(parallelism));
+      overrides.setProperty(PARALLEL_DOWNLOAD_PART_SIZE, "4");
+      overrides.setProperty("jclouds.mpu.parts.size", String.valueOf(PART_SIZE));
+      overrides.setProperty(DELETE_COMPONENTS_SYNCHRONOUSLY, "true");
+      return (GoogleCloudStorageBlobStore) builder(ImmutableSet.<Module> of(
+            new ExecutorServiceModule(MoreExecutors.listeningDecorator(Executors.newCachedThreadPool())),
+            new OkHttpCommandExecutorServiceModule()))
+            .overrides(overrides).buildView(BlobStoreContext.class).getBlobStore();
+   }
+
+   private void assertListed(String decodedPath) throws InterruptedException {
+      RecordedRequest request = server.takeRequest();
+      assertEquals(request.getMethod(), "GET");
+      assertEquals(Strings2.urlDecode(request.getPath()), decodedPath);
+   }
+
+   /** Counts the threads parked without a timeout, as readers waiting for a shared download are. */
+   private static int waiting(List<Thread> threads) {
+      int waiting = 0;
+      for (Thread thread : threads) {
+         if (thread.getState() == Thread.State.WAITING) {
+            waiting++;
+         }
+      }
+      return waiting;
+   }
+
+   private static MockResponse jsonPage(String body) {
+      return new MockResponse().addHeader("Content-Type", "application/json").setBody(body);
+   }
+
+   private static int countDeletes(RecordedRequest request) {
+      return new String(request.getBody(), UTF_8).split("\r\nDELETE ", -1).length - 1;
+   }
+
+   private static MockResponse batchResponse(int deletes) {
+      StringBuilder body = new StringBuilder();
+      for (int i = 1; i <= deletes; i++) {
+         body.append(batchPart(i, "204 No Content"));
+      }
+      body.append("--").append(BATCH_BOUNDARY).append("--");
+      return new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=" + BATCH_BOUNDARY)
+            .setBody(body.toString());
+   }
+
+   private static String batchPart(int contentId, String status) {
+      return "--" + BATCH_BOUNDARY + "\r\n" +
+            "Content-Type: application/http\r\n" +
+            "Content-ID: <response-item+" + contentId + ">\r\n" +
+            "\r\n" +
+            "HTTP/1.1 " + status + "\r\n" +
+            "\r\n" +
+            "\r\n";
+   }
+
+   private static void assertListedParts(RecordedRequest request, String prefix, String pageToken) {
+      assertEquals(request.getMethod(), "GET");
+      assertEquals(Strings2.urlDecode(request.getPath()), "/storage/v1/b/test/o?prefix=" + prefix +
+            "&fields=nextPageToken,prefixes,items(etag,name,generation,size)" +
+            (pageToken == null ? "" : "&pageToken=" + pageToken));
+   }
+
+   private static String partialJson(String name, long size) {
+      return "{\"name\": \"" + name + "\", \"size\": \"" + size + "\", \"etag\": \"etag-" + name + "\"," +
+            " \"generation\": \"1\"}";
+   }
+
+   private static JsonObject body(RecordedRequest request) {
+      return new JsonParser().parse(new String(request.getBody(), UTF_8)).getAsJsonObject();
+   }
+
+   private static String objectJson(String name, long generation) {
+      return "{" +
+            "  \"kind\": \"storage#object\"," +
+            "  \"id\": \"test/" + name + "/" + generation + "\"," +
+            "  \"selfLink\": \"https://www.googleapis.com/storage/v1/b/test/o/" + name + "\"," +
+            "  \"name\": \"" + name + "\"," +
+            "  \"bucket\": \"test\"," +
+            "  \"generation\": \"" + generation + "\"," +
+            "  \"metageneration\": \"1\"," +
+            "  \"contentType\": \"text/plain\"," +
+            "  \"updated\": \"2014-09-27T00:01:44.819\"," +
+            "  \"storageClass\": \"STANDARD\"," +
+            "  \"size\": \"1\"," +
+            "  \"mediaLink\": \"https://www.googleapis.com/download/storage/v1/b/test/o/" + name + "?alt=media\"," +
+            "  \"etag\": \"etag-" + generation + "\"" +
+            "}";
+   }
+
+   private static void assertRange(RecordedRequest request, String range) {
+      assertEquals(request.getHeader("Range"), range);
+   }
+
+   private static MockResponse digitsObject(String crc32c) {
+      return new MockResponse().addHeader("Content-Type", "application/json").setBody("{" +
+            "  \"kind\": \"storage#object\"," +
+            "  \"id\": \"test/digits/1000\"," +
+            "  \"selfLink\": \"https://www.googleapis.com/storage/v1/b/test/o/digits\"," +
+            "  \"name\": \"digits\"," +
+            "  \"bucket\": \"test\"," +
+            "  \"generation\": \"1000\"," +
+            "  \"metageneration\": \"1\"," +
+            "  \"contentType\": \"text/plain\"," +
+            "  \"updated\": \"2014-09-27T00:01:44.819\"," +
+            "  \"storageClass\": \"STANDARD\"," +
+            "  \"size\": \"10\"," +
+            "  \"md5Hash\": \"eB5eJF1ptWaXm4bijSPyxw==\"," +
+            "  \"mediaLink\": \"https://www.googleapis.com/download/storage/v1/b/test/o/digits?alt=media\"," +
+            "  \"crc32c\": \"" + crc32c + "\"," +
+            "  \"etag\": \"etag\"" +
+            "}");
+   }
+
+   protected GoogleCloudStorageBlobStore blobStore() {
+      return blobStore(PARALLEL_DOWNLOAD_PART_SIZE, "4");
+   }
+
+   private GoogleCloudStorageBlobStore blobStore(String property, String value) {
+      Properties overrides = new Properties();
+      overrides.setProperty(PARALLEL_DOWNLOAD_PART_SIZE, "4");
+      overrides.setProperty(property, value);
+      overrides.setProperty(DELETE_COMPONENTS_SYNCHRONOUSLY, "true");
+      return (GoogleCloudStorageBlobStore) builder().overrides(overrides).buildView(BlobStoreContext.class)
+            .getBlobStore();
+   }
+}
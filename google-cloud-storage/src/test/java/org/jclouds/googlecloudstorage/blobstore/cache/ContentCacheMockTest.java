@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+
+@Test(groups = "unit", testName = "ContentCacheMockTest", singleThreaded = true)
+public class ContentCacheMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   private static final String DIGITS = "0123456789";
+
+   private Path directory;
+
+   @BeforeMethod
+   public void createDirectory() throws IOException {
+      directory = Files.createTempDirectory("gcs-content-cache");
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteDirectory() throws IOException {
+      for (Path file : files("*")) {
+         Files.delete(file);
+      }
+      Files.delete(directory);
+   }
+
+   public void diskTierServesTheRevalidatedCopy() throws Exception {
+      server.enqueue(object(7));
+      server.enqueue(new MockResponse().setResponseCode(304));
+      ContentCache cache = diskCache(1024);
+
+      assertEquals(read(cache.get("test", "digits")), DIGITS);
+      assertEquals(files("*" + ContentCache.FILE_SUFFIX).size(), 1);
+      assertEquals(read(cache.get("test", "digits")), DIGITS);
+
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media", null);
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media&ifGenerationNotMatch=7", null);
+   }
+
+   public void diskTierEvictsTheLeastRecentlyUsedBeyondItsSize() throws Exception {
+      // eight objects of ten bytes fill the tier
+      ContentCache cache = diskCache(80);
+      for (char name = 'a'; name <= 'h'; name++) {
+         server.enqueue(object(1));
+         read(cache.get("test", String.valueOf(name)));
+      }
+      server.enqueue(new MockResponse().setResponseCode(304));
+      read(cache.get("test", "a"));
+      server.enqueue(object(1));
+      read(cache.get("test", "i"));
+      assertEquals(files("*" + ContentCache.FILE_SUFFIX).size(), 8);
+
+      server.enqueue(new MockResponse().setResponseCode(304));
+      read(cache.get("test", "a"));
+      server.enqueue(object(1));
+      read(cache.get("test", "b"));
+
+      for (int i = 0; i < 10; i++) {
+         server.takeRequest();
+      }
+      // a was read again before i was added, so b was the least recently used
+      assertSent(server, "GET", "/storage/v1/b/test/o/a?alt=media&ifGenerationNotMatch=1", null);
+      assertSent(server, "GET", "/storage/v1/b/test/o/b?alt=media", null);
+   }
+
+   public void objectsLargerThanAnEighthOfTheTierAreNotKept() throws Exception {
+      server.enqueue(object(1));
+      ContentCache cache = diskCache(79);
+
+      assertEquals(read(cache.get("test", "digits")), DIGITS);
+
+      assertTrue(files("*" + ContentCache.FILE_SUFFIX).isEmpty());
+   }
+
+   public void deletesStaleFilesAtStartup() throws Exception {
+      Path stale = Files.createFile(directory.resolve("0123-1" + ContentCache.FILE_SUFFIX));
+      Path unrelated = Files.createFile(directory.resolve("unrelated.txt"));
+
+      diskCache(1024);
+
+      assertFalse(Files.exists(stale));
+      assertTrue(Files.exists(unrelated));
+   }
+
+   public void objectDeletedElsewhereIsForgotten() throws Exception {
+      server.enqueue(object(7));
+      server.enqueue(response404());
+      server.enqueue(response404());
+      ContentCache cache = diskCache(1024);
+
+      read(cache.get("test", "digits"));
+
+      assertNull(cache.get("test", "digits"));
+      assertTrue(files("*" + ContentCache.FILE_SUFFIX).isEmpty());
+      assertNull(cache.get("test", "digits"));
+      server.takeRequest();
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media&ifGenerationNotMatch=7", null);
+      assertSent(server, "GET", "/storage/v1/b/test/o/digits?alt=media", null);
+   }
+
+   private ContentCache diskCache(long diskSize) {
+      return new ContentCache(api(), 0, directory.toString(), diskSize);
+   }
+
+   private List<Path> files(String glob) throws IOException {
+      List<Path> files = Lists.newArrayList();
+      DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob);
+      try {
+         for (Path file : stream) {
+            files.add(file);
+         }
+      } finally {
+         stream.close();
+      }
+      return files;
+   }
+
+   private static MockResponse object(long generation) {
+      return new MockResponse().setBody(DIGITS).addHeader("x-goog-generation", String.valueOf(generation));
+   }
+
+   private static String read(Blob blob) throws IOException {
+      return Strings2.toStringAndClose(blob.getPayload().openStream());
+   }
+}
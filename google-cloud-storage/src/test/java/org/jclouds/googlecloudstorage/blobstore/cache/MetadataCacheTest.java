@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "MetadataCacheTest")
+public class MetadataCacheTest {
+
+   public void keepsTheNewerGeneration() {
+      MetadataCache cache = new MetadataCache(60000, 1024 * 1024);
+
+      cache.put("test", metadata("a", "etag-2"), 2);
+      cache.put("test", metadata("a", "etag-1"), 1);
+
+      assertEquals(cache.get("test", "a").getETag(), "etag-2");
+   }
+
+   public void replacesTheSameOrAnOlderGeneration() {
+      MetadataCache cache = new MetadataCache(60000, 1024 * 1024);
+
+      cache.put("test", metadata("a", "etag-1"), 1);
+      cache.put("test", metadata("a", "etag-1b"), 1);
+      assertEquals(cache.get("test", "a").getETag(), "etag-1b");
+
+      cache.put("test", metadata("a", "etag-2"), 2);
+      assertEquals(cache.get("test", "a").getETag(), "etag-2");
+   }
+
+   public void invalidateAllowsAnyGeneration() {
+      MetadataCache cache = new MetadataCache(60000, 1024 * 1024);
+
+      cache.put("test", metadata("a", "etag-2"), 2);
+      cache.invalidate("test", "a");
+      assertNull(cache.get("test", "a"));
+
+      cache.put("test", metadata("a", "etag-1"), 1);
+      assertEquals(cache.get("test", "a").getETag(), "etag-1");
+   }
+
+   public void disabledCacheHoldsNothing() {
+      MetadataCache cache = new MetadataCache(0, 1024 * 1024);
+
+      cache.put("test", metadata("a", "etag-1"), 1);
+
+      assertNull(cache.get("test", "a"));
+   }
+
+   private static BlobMetadata metadata(String name, String etag) {
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+      metadata.setName(name);
+      metadata.setETag(etag);
+      return metadata;
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "ObjectListToStorageMetadataTest")
+public class ObjectListToStorageMetadataTest {
+
+   private final ObjectListToStorageMetadata function = new ObjectListToStorageMetadata(new ObjectToBlobMetadata());
+
+   public void interleavesPrefixesAndObjectsInNameOrder() {
+      PageSet<? extends StorageMetadata> page = function.apply(ListPageWithPrefixes.create(
+            ImmutableList.of(object("a"), object("c.txt"), object("e")), "page2", ImmutableList.of("b/", "d/")));
+
+      assertEquals(names(page), ImmutableList.of("a", "b/", "c.txt", "d/", "e"));
+      assertEquals(types(page), ImmutableList.of(StorageType.BLOB, StorageType.RELATIVE_PATH, StorageType.BLOB,
+            StorageType.RELATIVE_PATH, StorageType.BLOB));
+      assertEquals(page.getNextMarker(), "page2");
+   }
+
+   public void sortsAnOutOfOrderPage() {
+      PageSet<? extends StorageMetadata> page = function.apply(ImmutableList.of(blob("c"), blob("a"), blob("b/x")),
+            ImmutableList.of("d/", "b/"), null);
+
+      assertEquals(names(page), ImmutableList.of("a", "b/", "b/x", "c", "d/"));
+   }
+
+   public void ordersByCodePointRatherThanUtf16Unit() {
+      // U+1F600 is encoded as surrogates, which sort below U+FFFD as UTF-16 units but above it as code points
+      PageSet<? extends StorageMetadata> page = function.apply(
+            ImmutableList.of(blob("\uD83D\uDE00"), blob("\uFFFD")), ImmutableList.<String> of(), null);
+
+      assertEquals(names(page), ImmutableList.of("\uFFFD", "\uD83D\uDE00"));
+   }
+
+   public void keepsOneEntryPerName() {
+      // a zero-byte "directory" object shares its name with the prefix of the objects under it
+      PageSet<? extends StorageMetadata> page = function.apply(ListPageWithPrefixes.create(
+            ImmutableList.of(object("a"), object("b/")), null, ImmutableList.of("b/")));
+
+      assertEquals(names(page), ImmutableList.of("a", "b/"));
+      assertEquals(types(page), ImmutableList.of(StorageType.BLOB, StorageType.BLOB));
+      assertEquals(page.size(), 2);
+   }
+
+   public void missingListingIsEmpty() {
+      PageSet<? extends StorageMetadata> page = function.apply((ListPageWithPrefixes<GoogleCloudStorageObject>) null);
+
+      assertTrue(page.isEmpty());
+      assertNull(page.getNextMarker());
+   }
+
+   private static List<String> names(Iterable<? extends StorageMetadata> page) {
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (StorageMetadata metadata : page) {
+         names.add(metadata.getName());
+      }
+      return names.build();
+   }
+
+   private static List<StorageType> types(Iterable<? extends StorageMetadata> page) {
+      ImmutableList.Builder<StorageType> types = ImmutableList.builder();
+      for (StorageMetadata metadata : page) {
+         types.add(metadata.getType());
+      }
+      return types.build();
+   }
+
+   private static MutableBlobMetadata blob(String name) {
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+      metadata.setType(StorageType.BLOB);
+      metadata.setName(name);
+      return metadata;
+   }
+
+   private static GoogleCloudStorageObject object(String name) {
+      return GoogleCloudStorageObject.create("test/" + name + "/1", null, "etag", name, "test", 1, null, null, null,
+            null, null, 0, null, null, null, null, null, null, null, null, null, null, null);
+   }
+}
@@ -17,11 +17,10 @@
 package org.jclouds.googlecloudstorage.blobstore.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.DELETE_COMPONENTS_SYNCHRONOUSLY;
 import static org.testng.Assert.assertEquals;
-import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
-import static org.testng.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -72,6 +71,7 @@ public class GoogleCloudStorageBlobIntegrationLiveTest extends BaseBlobIntegrati
       TestProperties.setGoogleCredentialsFromJson(provider);
       Properties properties = super.setupProperties();
       properties.put("jclouds.mpu.parts.size", 2 * 1024 * 1024);
+      properties.put(DELETE_COMPONENTS_SYNCHRONOUSLY, true);
       return TestProperties.apply(provider, properties);
    }
 
@@ -224,9 +224,7 @@ public class GoogleCloudStorageBlobIntegrationLiveTest extends BaseBlobIntegrati
          addMultipartBlobToContainer(containerName, "const.txt");
 
          long countAfter = blobStore.countBlobs(containerName);
-         assertNotEquals(countBefore, countAfter, "No blob was created");
-         assertTrue(countAfter - countBefore > 1, "A multipart blob wasn't actually created - "
-                  + "there was only 1 extra blob but there should be one manifest blob and multiple chunk blobs");
+         assertEquals(countAfter - countBefore, 1, "The multipart components should have been deleted");
       } finally {
          returnContainer(containerName);
       }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "HedgedReadsTest", singleThreaded = true)
+public class HedgedReadsTest {
+
+   private ListeningExecutorService executor;
+
+   @BeforeMethod
+   public void start() {
+      executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stop() {
+      executor.shutdownNow();
+   }
+
+   public void slowReadIsHedged() {
+      HedgedReads hedgedReads = new HedgedReads(executor, 0.5, 1);
+      warmUp(hedgedReads);
+
+      final CountDownLatch slow = new CountDownLatch(1);
+      final AtomicInteger attempts = new AtomicInteger();
+      String result = hedgedReads.call(new Callable<String>() {
+         @Override
+         public String call() throws InterruptedException {
+            if (attempts.incrementAndGet() == 1) {
+               slow.await(10, TimeUnit.SECONDS);
+               return "primary";
+            }
+            return "hedge";
+         }
+      });
+      slow.countDown();
+
+      assertEquals(result, "hedge");
+      assertEquals(hedgedReads.getHedgeCount(), 1);
+   }
+
+   public void slowLoserIsReleasedWhenItCompletes() throws Exception {
+      HedgedReads hedgedReads = new HedgedReads(executor, 0.5, 1);
+      warmUp(hedgedReads);
+
+      final CountDownLatch slow = new CountDownLatch(1);
+      final CountDownLatch closed = new CountDownLatch(1);
+      final AtomicInteger attempts = new AtomicInteger();
+      HttpResponse result = hedgedReads.call(new Callable<HttpResponse>() {
+         @Override
+         public HttpResponse call() throws InterruptedException {
+            if (attempts.incrementAndGet() > 1) {
+               return HttpResponse.builder().statusCode(200).build();
+            }
+            slow.await(10, TimeUnit.SECONDS);
+            InputStream payload = new ByteArrayInputStream(new byte[1]) {
+               @Override
+               public void close() {
+                  closed.countDown();
+               }
+            };
+            return HttpResponse.builder().statusCode(200).payload(Payloads.newInputStreamPayload(payload)).build();
+         }
+      });
+      slow.countDown();
+
+      assertNull(result.getPayload());
+      assertTrue(closed.await(10, TimeUnit.SECONDS), "the primary's payload was not released");
+   }
+
+   public void readsCalledFromABusyUserThreadComplete() throws Exception {
+      Closer closer = new Closer();
+      final HedgedReads hedgedReads = new HedgedReads(closer, 0.5, 1);
+      // a single user thread, which the caller occupies
+      ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         userExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+               warmUp(hedgedReads);
+            }
+         }).get(10, TimeUnit.SECONDS);
+      } finally {
+         userExecutor.shutdownNow();
+         closer.close();
+      }
+   }
+
+   public void hedgesAreLimitedByBudget() {
+      HedgedReads hedgedReads = new HedgedReads(executor, 0.5, 0);
+      warmUp(hedgedReads);
+
+      String result = hedgedReads.call(new Callable<String>() {
+         @Override
+         public String call() throws InterruptedException {
+            Thread.sleep(50);
+            return "primary";
+         }
+      });
+
+      assertEquals(result, "primary");
+      assertEquals(hedgedReads.getHedgeCount(), 0);
+   }
+
+   private static void warmUp(HedgedReads hedgedReads) {
+      for (int i = 0; i < HedgedReads.MIN_SAMPLES; i++) {
+         hedgedReads.call(new Callable<String>() {
+            @Override
+            public String call() {
+               return "fast";
+            }
+         });
+      }
+   }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.blobstore.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "WriteRateLimiterTest")
+public class WriteRateLimiterTest {
+
+   private static final class FakeTicker extends Ticker {
+      private long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long time, TimeUnit unit) {
+         nanos += unit.toNanos(time);
+      }
+   }
+
+   public void repeatedWritesToOneNameAreSpacedOut() {
+      WriteRateLimiter limiter = new WriteRateLimiter(1000, 0, 1000, 1, new FakeTicker());
+
+      assertTrue(limiter.reserve("test", "a") <= 0);
+      assertEquals(limiter.reserve("test", "a"), TimeUnit.SECONDS.toNanos(1));
+      assertTrue(limiter.reserve("test", "b") <= 0);
+      assertTrue(limiter.reserve("other", "a") <= 0);
+   }
+
+   public void bucketRateAllowsABurstThenRampsUp() {
+      FakeTicker ticker = new FakeTicker();
+      WriteRateLimiter limiter = new WriteRateLimiter(2, 8, 1000, 0, ticker);
+
+      assertTrue(limiter.reserve("test", "a") <= 0);
+      assertTrue(limiter.reserve("test", "b") <= 0);
+      assertEquals(limiter.reserve("test", "c"), TimeUnit.MILLISECONDS.toNanos(500));
+      assertTrue(limiter.reserve("other", "a") <= 0);
+
+      ticker.advance(2, TimeUnit.SECONDS);
+      assertEquals(limiter.getRate("test"), 8.0);
+   }
+
+   public void bucketRateStartsOverAfterARampPeriodWithoutWrites() {
+      FakeTicker ticker = new FakeTicker();
+      WriteRateLimiter limiter = new WriteRateLimiter(2, 8, 1000, 0, ticker);
+
+      limiter.reserve("test", "a");
+      ticker.advance(1, TimeUnit.SECONDS);
+      limiter.reserve("test", "b");
+      ticker.advance(1, TimeUnit.SECONDS);
+      limiter.reserve("test", "c");
+      assertEquals(limiter.getRate("test"), 8.0);
+
+      // the next write was due 125 ms after the last one, so this is a ramp period without writes
+      ticker.advance(1125, TimeUnit.MILLISECONDS);
+      assertEquals(limiter.getRate("test"), 2.0);
+      limiter.reserve("test", "d");
+      assertEquals(limiter.getRate("test"), 2.0);
+      ticker.advance(1, TimeUnit.SECONDS);
+      assertEquals(limiter.getRate("test"), 4.0);
+   }
+
+   public void objectPacerIsKeptUntilItsTurnsHavePassed() {
+      FakeTicker ticker = new FakeTicker();
+      WriteRateLimiter limiter = new WriteRateLimiter(1000, 0, 1000, 1, ticker);
+
+      // ten writes queue turns up to ten seconds ahead, well past the two second sweep interval
+      for (int i = 0; i < 10; i++) {
+         limiter.reserve("test", "a");
+      }
+      ticker.advance(3, TimeUnit.SECONDS);
+      limiter.reserve("test", "b");
+      assertEquals(limiter.objectPacers(), 2);
+      assertEquals(limiter.reserve("test", "a"), TimeUnit.SECONDS.toNanos(7));
+
+      ticker.advance(20, TimeUnit.SECONDS);
+      limiter.reserve("test", "c");
+      assertEquals(limiter.objectPacers(), 1);
+      assertTrue(limiter.reserve("test", "a") <= 0);
+   }
+
+   public void batchWaitsForTheLastTurnItReserves() throws Exception {
+      FakeTicker ticker = new FakeTicker();
+      WriteRateLimiter limiter = new WriteRateLimiter(2, 2, 1000, 0, ticker);
+
+      limiter.acquire("test", ImmutableList.of("a", "b"));
+      // the batch above took the burst, so the next write waits for both of its turns
+      assertEquals(limiter.reserve("test", "c"), TimeUnit.MILLISECONDS.toNanos(500));
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.config;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.features.AsyncObjectApi;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.googlecloudstorage.parse.ParseGoogleCloudStorageObject;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "VirtualThreadExecutorModuleMockTest", singleThreaded = true)
+public class VirtualThreadExecutorModuleMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   public void userExecutorRunsOnVirtualThreadsWhenAvailable() throws Exception {
+      server.enqueue(jsonResponse("/object_get.json"));
+      Injector injector = builder(ImmutableSet.<Module> of(new VirtualThreadExecutorModule(),
+            new OkHttpCommandExecutorServiceModule())).buildInjector();
+      ListeningExecutorService userExecutor = injector.getInstance(Key.get(ListeningExecutorService.class,
+            Names.named(Constants.PROPERTY_USER_THREADS)));
+
+      Thread thread = userExecutor.submit(new Callable<Thread>() {
+         @Override
+         public Thread call() {
+            return Thread.currentThread();
+         }
+      }).get(10, TimeUnit.SECONDS);
+      // the rest of jclouds' executor bindings are kept
+      assertSame(injector.getInstance(Key.get(ExecutorService.class, Names.named(Constants.PROPERTY_USER_THREADS))),
+            userExecutor);
+      if (VirtualThreadExecutorModule.virtualThreadsAvailable()) {
+         assertEquals(Thread.class.getMethod("isVirtual").invoke(thread), Boolean.TRUE);
+      } else {
+         assertTrue(thread.getName().startsWith("user thread"), thread.getName());
+      }
+
+      assertEquals(injector.getInstance(AsyncObjectApi.class).getObject("test", "file_name").get(10, TimeUnit.SECONDS),
+            new ParseGoogleCloudStorageObject().expected());
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+   }
+}
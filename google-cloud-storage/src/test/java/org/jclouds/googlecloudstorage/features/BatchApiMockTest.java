@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.features;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.jclouds.googlecloudstorage.domain.BatchRequest;
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "BatchApiMockTest", singleThreaded = true)
+public class BatchApiMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   public void execute() throws Exception {
+      server.enqueue(new MockResponse()
+            .addHeader("Content-Type", "multipart/mixed; boundary=batch_pK7JBAk73-E=_AA5eFwv4m2Q=")
+            .setBody(stringFromResource("/batch_delete_response.txt")));
+
+      List<BatchResponse> responses = batchApi().execute(ImmutableList.of(
+            BatchRequest.deleteObject("test", "file_name"), BatchRequest.deleteObject("test", "dir/file name")));
+
+      assertEquals(responses.size(), 2);
+      assertTrue(responses.get(0).isSuccessful());
+      assertNull(responses.get(0).payload());
+      assertFalse(responses.get(1).isSuccessful());
+      assertEquals(responses.get(1).statusCode(), 404);
+      assertEquals(responses.get(1).payload(), "{\"error\": {\"code\": 404, \"message\": \"Not Found\"}}");
+
+      RecordedRequest request = assertSent(server, "POST", "/batch/storage/v1", null);
+      assertEquals(request.getHeader("Content-Type"), "multipart/mixed; boundary=jclouds_batch_boundary");
+      assertEquals(new String(request.getBody(), UTF_8), "" +
+            "--jclouds_batch_boundary\r\n" +
+            "Content-Type: application/http\r\n" +
+            "Content-Transfer-Encoding: binary\r\n" +
+            "Content-ID: <item+1>\r\n" +
+            "\r\n" +
+            "DELETE /storage/v1/b/test/o/file_name HTTP/1.1\r\n" +
+            "\r\n" +
+            "--jclouds_batch_boundary\r\n" +
+            "Content-Type: application/http\r\n" +
+            "Content-Transfer-Encoding: binary\r\n" +
+            "Content-ID: <item+2>\r\n" +
+            "\r\n" +
+            "DELETE /storage/v1/b/test/o/dir%2Ffile%20name HTTP/1.1\r\n" +
+            "\r\n" +
+            "--jclouds_batch_boundary--\r\n");
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void executeFailsOnAPartWithoutAContentId() throws Exception {
+      server.enqueue(batchResponse(batchPart("<response-item+1>"), batchPart(null)));
+
+      batchApi().execute(ImmutableList.of(BatchRequest.deleteObject("test", "a"),
+            BatchRequest.deleteObject("test", "b")));
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void executeFailsOnAGapInTheContentIds() throws Exception {
+      server.enqueue(batchResponse(batchPart("<response-item+1>"), batchPart("<response-item+3>")));
+
+      batchApi().execute(ImmutableList.of(BatchRequest.deleteObject("test", "a"),
+            BatchRequest.deleteObject("test", "b"), BatchRequest.deleteObject("test", "c")));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void executeRejectsOversizedBatch() throws Exception {
+      ImmutableList.Builder<BatchRequest> requests = ImmutableList.builder();
+      for (int i = 0; i <= BatchApi.MAX_BATCH_SIZE; i++) {
+         requests.add(BatchRequest.deleteObject("test", "file_" + i));
+      }
+      batchApi().execute(requests.build());
+   }
+
+   public BatchApi batchApi() {
+      return api().getBatchApi();
+   }
+
+   private static MockResponse batchResponse(String... parts) {
+      StringBuilder body = new StringBuilder();
+      for (String part : parts) {
+         body.append(part);
+      }
+      body.append("--batch_boundary--\r\n");
+      return new MockResponse().addHeader("Content-Type", "multipart/mixed; boundary=batch_boundary")
+            .setBody(body.toString());
+   }
+
+   private static String batchPart(String contentId) {
+      return "--batch_boundary\r\n" +
+            "Content-Type: application/http\r\n" +
+            (contentId == null ? "" : "Content-ID: " + contentId + "\r\n") +
+            "\r\n" +
+            "HTTP/1.1 204 No Content\r\n" +
+            "\r\n";
+   }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.features;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectRole.READER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.jclouds.googlecloudstorage.domain.BatchResponse;
+import org.jclouds.googlecloudstorage.domain.templates.ObjectAccessControlsTemplate;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+
+@Test(groups = "unit", testName = "ObjectAccessControlsApiMockTest", singleThreaded = true)
+public class ObjectAccessControlsApiMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   private static final ObjectAccessControlsTemplate TEMPLATE = ObjectAccessControlsTemplate.create("allUsers",
+         READER);
+
+   public void batchCreate() throws Exception {
+      server.enqueue(batchResponse());
+
+      List<BatchResponse> responses = aclApi().createObjectAccessControls("test",
+            ImmutableList.of("file_name", "dir/file name"), TEMPLATE);
+
+      assertEquals(responses.size(), 2);
+      assertTrue(responses.get(0).isSuccessful());
+      assertFalse(responses.get(1).isSuccessful());
+      String body = sentBatch();
+      assertTrue(body.contains("POST /storage/v1/b/test/o/file_name/acl HTTP/1.1\r\n"), body);
+      assertTrue(body.contains("POST /storage/v1/b/test/o/dir%2Ffile%20name/acl HTTP/1.1\r\n"), body);
+      assertTrue(body.contains("\r\n\r\n{\"entity\":\"allUsers\",\"role\":\"READER\"}\r\n"), body);
+   }
+
+   public void batchDelete() throws Exception {
+      server.enqueue(batchResponse());
+
+      aclApi().deleteObjectAccessControls("test", ImmutableList.of("file_name", "dir/file name"), "allUsers");
+
+      String body = sentBatch();
+      assertTrue(body.contains("DELETE /storage/v1/b/test/o/file_name/acl/allUsers HTTP/1.1\r\n\r\n"), body);
+      assertTrue(body.contains("DELETE /storage/v1/b/test/o/dir%2Ffile%20name/acl/allUsers HTTP/1.1\r\n"), body);
+   }
+
+   public void batchPatch() throws Exception {
+      server.enqueue(batchResponse());
+
+      aclApi().patchObjectAccessControls("test", ImmutableList.of("file_name", "dir/file name"), "allUsers",
+            TEMPLATE);
+
+      String body = sentBatch();
+      assertTrue(body.contains("PATCH /storage/v1/b/test/o/file_name/acl/allUsers HTTP/1.1\r\n"), body);
+      assertTrue(body.contains("PATCH /storage/v1/b/test/o/dir%2Ffile%20name/acl/allUsers HTTP/1.1\r\n"), body);
+      assertTrue(body.contains("\r\n\r\n{\"entity\":\"allUsers\",\"role\":\"READER\"}\r\n"), body);
+   }
+
+   private String sentBatch() throws InterruptedException {
+      return new String(assertSent(server, "POST", "/batch/storage/v1").getBody(), UTF_8);
+   }
+
+   private MockResponse batchResponse() {
+      return new MockResponse()
+            .addHeader("Content-Type", "multipart/mixed; boundary=batch_pK7JBAk73-E=_AA5eFwv4m2Q=")
+            .setBody(stringFromResource("/batch_delete_response.txt"));
+   }
+
+   public ObjectAccessControlsApi aclApi() {
+      return api().getObjectAccessControlsApi();
+   }
+}
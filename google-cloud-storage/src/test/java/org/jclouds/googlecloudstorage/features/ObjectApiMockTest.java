@@ -23,9 +23,16 @@ import static org.testng.Assert.assertFalse;
 import static com.google.common.base.Charsets.UTF_8;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.DestinationPredefinedAcl;
+import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.ObjectField;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.PredefinedAcl;
 import org.jclouds.googlecloudstorage.domain.DomainResourceReferences.Projection;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
 import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
 import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
@@ -40,9 +47,12 @@ import org.jclouds.googlecloudstorage.parse.ParseGoogleCloudStorageObjectListTes
 import org.jclouds.googlecloudstorage.parse.ParseObjectRewriteResponse;
 import org.jclouds.http.internal.PayloadEnclosingImpl;
 import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.rest.ResourceNotFoundException;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
 import com.google.common.net.MediaType;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -87,6 +97,29 @@ public class ObjectApiMockTest extends BaseGoogleCloudStorageApiMockTest {
       assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
    }
 
+   public void getAsync() throws Exception {
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(response404());
+      AsyncObjectApi asyncObjectApi = builder().buildInjector().getInstance(AsyncObjectApi.class);
+
+      assertEquals(asyncObjectApi.getObject("test", "file_name").get(10, TimeUnit.SECONDS),
+            new ParseGoogleCloudStorageObject().expected());
+      assertNull(asyncObjectApi.getObject("test", "missing").get(10, TimeUnit.SECONDS));
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+      assertSent(server, "GET", "/storage/v1/b/test/o/missing");
+   }
+
+   public void getRetriesRateLimitedRequest() throws Exception {
+      server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "0"));
+      server.enqueue(new MockResponse().setResponseCode(503));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertEquals(objectApi().getObject("test", "file_name"), new ParseGoogleCloudStorageObject().expected());
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name");
+   }
+
    public void get_with_options() throws Exception {
       server.enqueue(jsonResponse("/object_get.json"));
 
@@ -99,6 +132,72 @@ public class ObjectApiMockTest extends BaseGoogleCloudStorageApiMockTest {
       assertEquals(request.getHeader("Range"), "bytes=0-1023");
    }
 
+   public void get_with_fields() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json").setBody(
+            "{\"name\": \"file_name\", \"etag\": \"etag\", \"generation\": \"1\", \"size\": \"1\"," +
+            " \"contentType\": \"text/plain\"}"));
+
+      GoogleCloudStorageObject object = objectApi().getObject("test", "file_name",
+            new GetObjectOptions().fields(ObjectField.CONTENT_TYPE));
+
+      assertEquals(object.contentType(), "text/plain");
+      assertNull(object.selfLink());
+      assertTrue(object.acl().isEmpty());
+      RecordedRequest request = server.takeRequest();
+      assertEquals(Strings2.urlDecode(request.getPath()),
+            "/storage/v1/b/test/o/file_name?fields=etag,name,generation,contentType,size");
+   }
+
+   public void downloadBlob() throws Exception {
+      server.enqueue(new MockResponse()
+            .addHeader("Content-Type", "text/plain")
+            .addHeader("ETag", "\"CLCN8JHs7ccCEAE=\"")
+            .addHeader("Last-Modified", "Sat, 27 Sep 2014 00:01:44 GMT")
+            .addHeader("X-Goog-Generation", "1000")
+            .addHeader("X-Goog-Metageneration", "1")
+            .addHeader("X-Goog-Hash", "crc32c=n03x6A==")
+            .addHeader("X-Goog-Hash", "md5=XrY7u+Ae7tCTyyK7j1rNww==")
+            .addHeader("X-Goog-Stored-Content-Length", "11")
+            .addHeader("X-Goog-Meta-Owner", "jclouds")
+            .setBody("hello world"));
+
+      Blob blob = objectApi().downloadBlob("test", Strings2.urlEncode("dir/file name"), new GetObjectOptions());
+      BlobMetadata metadata = blob.getMetadata();
+      assertEquals(metadata.getContainer(), "test");
+      assertEquals(metadata.getName(), "dir/file name");
+      assertEquals(metadata.getId(), "test/dir/file name/1000");
+      assertEquals(metadata.getETag(), "CLCN8JHs7ccCEAE=");
+      assertEquals(metadata.getSize(), Long.valueOf(11));
+      assertEquals(metadata.getUserMetadata(), ImmutableMap.of("owner", "jclouds"));
+      assertEquals(metadata.getContentMetadata().getContentType(), "text/plain");
+      assertEquals(metadata.getContentMetadata().getContentMD5AsHashCode(),
+            Hashing.md5().hashString("hello world", UTF_8));
+      assertEquals(Strings2.toStringAndClose(blob.getPayload().openStream()), "hello world");
+      assertSent(server, "GET", "/storage/v1/b/test/o/dir%2Ffile%20name?alt=media", null);
+   }
+
+   public void downloadBlob_4xx() throws Exception {
+      server.enqueue(response404());
+
+      assertNull(objectApi().downloadBlob("test", "file_name", new GetObjectOptions()));
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name?alt=media", null);
+   }
+
+   public void downloadBlobIfModified_304() throws Exception {
+      server.enqueue(new MockResponse().setResponseCode(304));
+
+      assertNull(objectApi().downloadBlobIfModified("test", "file_name",
+            new GetObjectOptions().ifGenerationNotMatch(1000L)));
+      assertSent(server, "GET", "/storage/v1/b/test/o/file_name?alt=media&ifGenerationNotMatch=1000", null);
+   }
+
+   @Test(expectedExceptions = ResourceNotFoundException.class)
+   public void downloadBlobIfModified_4xx() throws Exception {
+      server.enqueue(response404());
+
+      objectApi().downloadBlobIfModified("test", "file_name", new GetObjectOptions().ifGenerationNotMatch(1000L));
+   }
+
    public void simpleUpload() throws Exception {
       server.enqueue(jsonResponse("/object_get.json"));
 
@@ -159,6 +258,42 @@ public class ObjectApiMockTest extends BaseGoogleCloudStorageApiMockTest {
         "delimiter=-&prefix=test&versions=true&pageToken=asdf&maxResults=4&projection=full");
    }
 
+   public void list_with_fields() throws Exception {
+      server.enqueue(jsonResponse("/object_list.json"));
+
+      objectApi().listObjects("test", new ListObjectOptions().prefix("file").fields(ObjectField.MD5_HASH));
+
+      RecordedRequest request = server.takeRequest();
+      assertEquals(Strings2.urlDecode(request.getPath()),
+            "/storage/v1/b/test/o?prefix=file&fields=nextPageToken,prefixes,items(etag,name,generation,size,md5Hash)");
+   }
+
+   public void listAllFollowsPageTokens() throws Exception {
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/json").setBody("{" +
+            "  \"nextPageToken\": \"page2\"," +
+            "  \"items\": [{\"name\": \"file_name0\", \"etag\": \"etag\", \"generation\": \"1\", \"size\": \"1\"}]" +
+            "}"));
+      server.enqueue(jsonResponse("/object_list.json"));
+      ListObjectOptions options = new ListObjectOptions().prefix("file");
+
+      Iterator<GoogleCloudStorageObject> objects = objectApi().listObjectsAll("test", options);
+
+      assertEquals(objects.next().name(), "file_name0");
+      assertEquals(objects.next().name(), "file_name");
+      assertEquals(objects.next().name(), "file_name2");
+      assertFalse(objects.hasNext());
+      assertFalse(options.buildQueryParameters().containsKey("pageToken"));
+      assertSent(server, "GET", "/storage/v1/b/test/o?prefix=file");
+      assertSent(server, "GET", "/storage/v1/b/test/o?prefix=file&pageToken=page2");
+   }
+
+   public void listAll_4xx() throws Exception {
+      server.enqueue(response404());
+
+      assertFalse(objectApi().listObjectsAll("test").hasNext());
+      assertSent(server, "GET", "/storage/v1/b/test/o");
+   }
+
    public void update() throws Exception {
       server.enqueue(jsonResponse("/object_get.json"));
 
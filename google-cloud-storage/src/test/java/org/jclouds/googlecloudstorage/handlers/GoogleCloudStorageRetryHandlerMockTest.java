@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.handlers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Properties;
+
+import org.jclouds.Constants;
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.googlecloudstorage.options.GetObjectOptions;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.HttpRetryHandler;
+import org.jclouds.http.annotation.ClientError;
+import org.jclouds.http.annotation.ServerError;
+import org.testng.annotations.Test;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+
+/** Exercises {@link GoogleCloudStorageRetryHandler} as bound by the api module, against a mock server. */
+@Test(groups = "unit", testName = "GoogleCloudStorageRetryHandlerMockTest", singleThreaded = true)
+public class GoogleCloudStorageRetryHandlerMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   public void retriesRateLimitedRequestAfterRetryAfter() throws Exception {
+      server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "1"));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      long start = System.currentTimeMillis();
+      assertNotNull(api(5).getObjectApi().getObject("test", "file_name"));
+
+      assertTrue(System.currentTimeMillis() - start >= 1000, "Retry-After was not honoured");
+      assertEquals(server.getRequestCount(), 2);
+   }
+
+   public void retriesServerError() throws Exception {
+      server.enqueue(new MockResponse().setResponseCode(503));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertNotNull(api(5).getObjectApi().getObject("test", "file_name"));
+
+      assertEquals(server.getRequestCount(), 2);
+   }
+
+   public void doesNotRetryNotFound() throws Exception {
+      server.enqueue(response404());
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      assertNull(api(5).getObjectApi().getObject("test", "file_name"));
+
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void doesNotRetryPreconditionFailed() throws Exception {
+      server.enqueue(new MockResponse().setResponseCode(412));
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      try {
+         api(5).getObjectApi().getObject("test", "file_name", new GetObjectOptions().ifGenerationMatch(1L));
+         fail("expected IllegalStateException");
+      } catch (IllegalStateException expected) {
+      }
+
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void stopsAtTheRetryLimit() throws Exception {
+      for (int i = 0; i < 4; i++) {
+         server.enqueue(new MockResponse().setResponseCode(503));
+      }
+      server.enqueue(jsonResponse("/object_get.json"));
+
+      try {
+         api(2).getObjectApi().getObject("test", "file_name");
+         fail("expected HttpResponseException");
+      } catch (HttpResponseException expected) {
+         assertEquals(expected.getResponse().getStatusCode(), 503);
+      }
+
+      // the first attempt and two retries
+      assertEquals(server.getRequestCount(), 3);
+   }
+
+   public void boundForClientAndServerErrors() {
+      Injector injector = builder().buildInjector();
+
+      assertTrue(injector.getInstance(Key.get(HttpRetryHandler.class, ClientError.class))
+            instanceof GoogleCloudStorageRetryHandler);
+      assertTrue(injector.getInstance(Key.get(HttpRetryHandler.class, ServerError.class))
+            instanceof GoogleCloudStorageRetryHandler);
+   }
+
+   /** Returns an api that retries at most {@code maxRetries} times, starting from a 1 ms backoff. */
+   private GoogleCloudStorageApi api(int maxRetries) {
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, String.valueOf(maxRetries));
+      overrides.setProperty(Constants.PROPERTY_RETRY_DELAY_START, "1");
+      return builder().overrides(overrides).buildApi(GoogleCloudStorageApi.class);
+   }
+}
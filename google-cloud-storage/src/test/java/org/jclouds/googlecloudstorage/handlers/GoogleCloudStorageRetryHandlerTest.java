@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.handlers;
+
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.googlecloudstorage.metrics.MetricsSink;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "GoogleCloudStorageRetryHandlerTest")
+public class GoogleCloudStorageRetryHandlerTest {
+
+   private final GoogleCloudStorageRetryHandler handler = new GoogleCloudStorageRetryHandler(
+         new AdaptiveConcurrencyLimiter(0), new SimpleDateFormatDateService(), 5, 50, MetricsSink.NULL);
+
+   public void retryAfterSeconds() {
+      assertEquals(handler.retryAfter("3", 0), 3000);
+      assertEquals(handler.retryAfter(null, 0), 0);
+      assertEquals(handler.retryAfter("3600", 0), GoogleCloudStorageRetryHandler.MAX_RETRY_AFTER_MILLIS);
+   }
+
+   public void retryAfterDate() {
+      long now = new SimpleDateFormatDateService().rfc822DateParse("Wed, 21 Oct 2015 07:28:00 GMT").getTime();
+      assertEquals(handler.retryAfter("Wed, 21 Oct 2015 07:28:02 GMT", now), 2000);
+      assertEquals(handler.retryAfter("Wed, 21 Oct 2015 07:27:00 GMT", now), 0);
+      assertEquals(handler.retryAfter("soon", now), 0);
+   }
+
+   public void bucketFromPath() {
+      assertEquals(GoogleCloudStorageRetryHandler.bucket("/storage/v1/b/test/o/file_name"), "test");
+      assertEquals(GoogleCloudStorageRetryHandler.bucket("/upload/storage/v1/b/test/o"), "test");
+      assertEquals(GoogleCloudStorageRetryHandler.bucket("/storage/v1/b/test"), "test");
+      assertEquals(GoogleCloudStorageRetryHandler.bucket("/batch/storage/v1"), "");
+   }
+
+   public void limiterHalvesOnThrottlingAndRecovers() throws InterruptedException {
+      AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8);
+      limiter.onThrottled("test");
+      limiter.onThrottled("test"); // same burst
+      assertEquals(limiter.getLimit("test"), 4);
+      assertEquals(limiter.getLimit("other"), 8);
+
+      for (int i = 0; i < 100; i++) {
+         limiter.acquire("test");
+         limiter.release("test");
+      }
+      assertEquals(limiter.getLimit("test"), 8);
+   }
+}
@@ -42,6 +42,7 @@ import org.testng.annotations.BeforeMethod;
 import com.google.common.collect.ImmutableSet;
 import com.google.gson.JsonParser;
 import com.google.inject.AbstractModule;
+import com.google.inject.Module;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -63,6 +64,11 @@ public class BaseGoogleCloudStorageApiMockTest {
 
 
    protected ContextBuilder builder() {
+      return builder(modules);
+   }
+
+   /** Builds against the mock server with the given modules instead of the same-thread executor and OkHttp. */
+   protected ContextBuilder builder(Iterable<? extends Module> modules) {
       Properties overrides = new Properties();
       overrides.put(PROJECT_NAME, "party");
       overrides.put(CREDENTIAL_TYPE, BEARER_TOKEN_CREDENTIALS.toString());
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "LatencyHistogramTest")
+public class LatencyHistogramTest {
+
+   public void bucketsBoundTheirValues() {
+      for (long micros = 0; micros < 100000; micros++) {
+         int index = LatencyHistogram.index(micros);
+         assertTrue(LatencyHistogram.upperBound(index) >= micros);
+         assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < micros);
+      }
+      assertTrue(LatencyHistogram.index(Long.MAX_VALUE) < (Long.SIZE + 1) * 4);
+   }
+
+   public void percentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 1; i <= 100; i++) {
+         histogram.record(i, TimeUnit.MILLISECONDS);
+      }
+      assertEquals(histogram.count(), 100);
+      assertWithin(histogram.percentile(0.5), 50000);
+      assertWithin(histogram.percentile(0.99), 99000);
+      assertWithin(histogram.percentile(1), 100000);
+      assertEquals(new LatencyHistogram().percentile(0.5), 0);
+   }
+
+   public void decayHalvesCounts() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 0; i < 10; i++) {
+         histogram.record(1, TimeUnit.MILLISECONDS);
+      }
+      histogram.decay();
+      assertEquals(histogram.count(), 5);
+      assertEquals(histogram.merge(histogram).count(), 10);
+   }
+
+   private static void assertWithin(long actual, long expected) {
+      assertTrue(actual >= expected && actual <= expected * 1.25, actual + " is not within 25% above " + expected);
+   }
+}
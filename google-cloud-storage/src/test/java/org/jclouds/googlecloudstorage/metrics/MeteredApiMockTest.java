@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.metrics;
+
+import static org.jclouds.googlecloudstorage.reference.GoogleCloudStorageConstants.METRICS_ENABLED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.Properties;
+
+import org.jclouds.googlecloudstorage.GoogleCloudStorageApi;
+import org.jclouds.googlecloudstorage.internal.BaseGoogleCloudStorageApiMockTest;
+import org.jclouds.googlecloudstorage.metrics.OperationMetrics.Stats;
+import org.jclouds.googlecloudstorage.parse.ParseGoogleCloudStorageObject;
+import org.jclouds.io.Payload;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+
+@Test(groups = "unit", testName = "MeteredApiMockTest", singleThreaded = true)
+public class MeteredApiMockTest extends BaseGoogleCloudStorageApiMockTest {
+
+   public void recordsEachOperationByBucket() throws Exception {
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(response404());
+      server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "0"));
+      server.enqueue(jsonResponse("/object_get.json"));
+      server.enqueue(new MockResponse().setBody("hello"));
+      Properties overrides = new Properties();
+      overrides.setProperty(METRICS_ENABLED, "true");
+      Injector injector = builder().overrides(overrides).buildInjector();
+      GoogleCloudStorageApi api = injector.getInstance(GoogleCloudStorageApi.class);
+
+      assertEquals(api.getObjectApi().getObject("test", "file_name"), new ParseGoogleCloudStorageObject().expected());
+      assertNull(api.getObjectApi().getObject("test", "missing"));
+      assertEquals(api.getObjectApi().getObject("test", "file_name"), new ParseGoogleCloudStorageObject().expected());
+
+      OperationMetrics metrics = injector.getInstance(OperationMetrics.class);
+      Payload download = api.getObjectApi().download("other", "file_name").getPayload();
+      // a download is recorded once its payload is closed, with the bytes read from it
+      assertEquals(metrics.getStats("Object:get", "other").getCount(), 0);
+      assertEquals(Strings2.toStringAndClose(download.openStream()), "hello");
+      Stats test = metrics.getStats("Object:get", "test");
+      assertEquals(test.getCount(), 3);
+      assertEquals(test.getStatuses(), ImmutableMap.of(200, 2L, 404, 1L));
+      assertEquals(test.getRetries(), 1);
+      assertEquals(test.getBytesReceived(), 0);
+      Stats other = metrics.getStats("Object:get", "other");
+      assertEquals(other.getCount(), 1);
+      assertEquals(other.getBytesReceived(), 5);
+      assertEquals(metrics.getAllStats().get("Object:get").keySet().size(), 2);
+   }
+
+   public void downloadReleasedUnreadIsRecordedWithNoBytes() throws Exception {
+      server.enqueue(new MockResponse().setBody("hello"));
+      Properties overrides = new Properties();
+      overrides.setProperty(METRICS_ENABLED, "true");
+      Injector injector = builder().overrides(overrides).buildInjector();
+
+      injector.getInstance(GoogleCloudStorageApi.class).getObjectApi().download("test", "file_name").getPayload()
+            .release();
+
+      Stats stats = injector.getInstance(OperationMetrics.class).getStats("Object:get", "test");
+      assertEquals(stats.getCount(), 1);
+      assertEquals(stats.getBytesReceived(), 0);
+   }
+
+   public void disabledByDefault() throws Exception {
+      server.enqueue(jsonResponse("/object_get.json"));
+      Injector injector = builder().buildInjector();
+      assertSame(injector.getInstance(MetricsSink.class), MetricsSink.NULL);
+
+      injector.getInstance(GoogleCloudStorageApi.class).getObjectApi().getObject("test", "file_name");
+      assertEquals(injector.getInstance(OperationMetrics.class).getAllStats(), ImmutableMap.of());
+   }
+}
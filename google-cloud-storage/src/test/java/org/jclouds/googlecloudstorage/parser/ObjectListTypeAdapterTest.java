@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecloudstorage.parser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.jclouds.googlecloudstorage.config.GoogleCloudStorageParserModule;
+import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
+import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "ObjectListTypeAdapterTest")
+public class ObjectListTypeAdapterTest {
+
+   private static final TypeToken<ListPageWithPrefixes<GoogleCloudStorageObject>> OBJECT_LIST =
+         new TypeToken<ListPageWithPrefixes<GoogleCloudStorageObject>>() {
+         };
+
+   private final Gson gson = Guice.createInjector(new GsonModule(), new GoogleCloudStorageParserModule())
+         .getInstance(Gson.class);
+
+   public void factoryOnlyAdaptsObjectListings() {
+      assertTrue(gson.getAdapter(OBJECT_LIST) instanceof ObjectListTypeAdapter);
+      assertFalse(gson.getAdapter(new TypeToken<ListPageWithPrefixes<String>>() {
+      }) instanceof ObjectListTypeAdapter);
+   }
+
+   public void readCollectsObjectsPrefixesAndPageToken() {
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = gson.fromJson("{" +
+            "\"kind\": \"storage#objects\"," +
+            "\"nextPageToken\": \"page2\"," +
+            "\"prefixes\": [\"a/\", \"b/\"]," +
+            "\"items\": [" + object("a") + "," + object("c") + "]}", OBJECT_LIST.getType());
+
+      assertEquals(names(page), ImmutableList.of("a", "c"));
+      assertEquals(page.get(0).generation(), 1L);
+      assertEquals(page.prefixes(), ImmutableList.of("a/", "b/"));
+      assertEquals(page.nextPageToken(), "page2");
+   }
+
+   public void readSkipsUnknownAndNullProperties() {
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = gson.fromJson("{" +
+            "\"unknown\": {\"items\": [1, 2], \"nested\": {\"prefixes\": null}}," +
+            "\"prefixes\": null," +
+            "\"items\": [" + object("a") + "]}", OBJECT_LIST.getType());
+
+      assertEquals(names(page), ImmutableList.of("a"));
+      assertTrue(page.prefixes().isEmpty());
+      assertNull(page.nextPageToken());
+   }
+
+   public void readEmptyListing() {
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = gson.fromJson("{\"kind\": \"storage#objects\"}",
+            OBJECT_LIST.getType());
+
+      assertTrue(page.isEmpty());
+      assertTrue(page.prefixes().isEmpty());
+      assertNull(page.nextPageToken());
+   }
+
+   public void readNull() {
+      assertNull(gson.fromJson("null", OBJECT_LIST.getType()));
+   }
+
+   public void readLeavesTheReaderAfterTheListing() throws IOException {
+      JsonReader in = new JsonReader(new StringReader("[{" +
+            "\"prefixes\": [\"b/\"]," +
+            "\"items\": [" + object("a") + "," + object("c") + "]," +
+            "\"nextPageToken\": \"page2\"}, \"next\"]"));
+      in.beginArray();
+
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = adapter().read(in);
+
+      assertEquals(names(page), ImmutableList.of("a", "c"));
+      assertEquals(page.prefixes(), ImmutableList.of("b/"));
+      assertEquals(page.nextPageToken(), "page2");
+      assertEquals(in.nextString(), "next");
+   }
+
+   public void writeReadsBack() {
+      ListPageWithPrefixes<GoogleCloudStorageObject> page = gson.fromJson("{" +
+            "\"nextPageToken\": \"page2\"," +
+            "\"prefixes\": [\"b/\"]," +
+            "\"items\": [" + object("a") + "]}", OBJECT_LIST.getType());
+
+      ListPageWithPrefixes<GoogleCloudStorageObject> copy = gson.fromJson(gson.toJson(page, OBJECT_LIST.getType()),
+            OBJECT_LIST.getType());
+
+      assertEquals(ImmutableList.copyOf(copy), ImmutableList.copyOf(page));
+      assertEquals(copy.prefixes(), page.prefixes());
+      assertEquals(copy.nextPageToken(), page.nextPageToken());
+   }
+
+   private ObjectListTypeAdapter adapter() {
+      return (ObjectListTypeAdapter) gson.getAdapter(OBJECT_LIST);
+   }
+
+   private static List<String> names(List<GoogleCloudStorageObject> objects) {
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (GoogleCloudStorageObject object : objects) {
+         names.add(object.name());
+      }
+      return names.build();
+   }
+
+   private static String object(String name) {
+      return "{\"kind\": \"storage#object\", \"name\": \"" + name + "\", \"bucket\": \"test\", \"etag\": \"etag-" +
+            name + "\", \"generation\": \"1\", \"size\": \"1\"}";
+   }
+}